@@ -0,0 +1,85 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * Benchmarks.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-021    Run the benchmarks at each number of threads
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.File;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the logging benchmarks.
+ * <p>Each benchmark is run at 1, 4, 16 and 64 threads with the {@code gc}
+ * profiler, so the results show the throughput, the latency percentiles and
+ * the allocation rate.  The results for each number of threads are also
+ * written as JSON to the results directory, for comparison between builds.
+ * <pre>java lexa.core.logging.Benchmarks &lt;results directory&gt; [&lt;benchmark regex&gt;] [&lt;threads&gt; ...]</pre>
+ *
+ * @author william
+ * @since 2026-10
+ */
+public class Benchmarks
+{
+    /** The numbers of threads run by default */
+    private static final int[] THREADS = {1, 4, 16, 64};
+
+    /**
+     * Run the benchmarks.
+     * @param   args
+     *          the results directory, optionally followed by a regular expression
+     *          for the benchmarks to run and the numbers of threads
+     * @throws  RunnerException
+     *          when a benchmark fails
+     */
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Usage: java lexa.core.logging.Benchmarks <results directory> [<benchmark regex>] [<threads> ...]");
+            System.exit(1);
+        }
+        File results = new File(args[0]);
+        results.mkdirs();
+        String include = args.length > 1 ?
+                args[1] :
+                Benchmarks.class.getPackage().getName() + ".*Benchmark";
+        int[] threads = Benchmarks.THREADS;
+        if (args.length > 2)
+        {
+            threads = new int[args.length - 2];
+            for (int t = 0; t < threads.length; t++)
+            {
+                threads[t] = Integer.parseInt(args[t + 2]);
+            }
+        }
+        for (int t : threads)
+        {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(t)
+                    .forks(1)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(results, "jmh-" + t + "-threads.json").getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
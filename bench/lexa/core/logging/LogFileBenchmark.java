@@ -0,0 +1,132 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * LogFileBenchmark.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-021    Benchmarks of each log file
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import lexa.core.data.ArrayDataSet;
+import lexa.core.data.DataSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks of writing messages to each kind of {@link LogFile}.
+ * <p>The {@code logFile} is a {@link StreamLogFile} on a {@link NullOutputStream}
+ * ({@code null}) or on a file ({@code file}), or a {@link DataSetLogFile}
+ * ({@code dataSet}).  The files are written to a temporary directory and roll
+ * every {@value #ROLL_BYTES} bytes, keeping one archive, so a long run does
+ * not fill the disk.
+ * <p>The {@code writer} is synchronous ({@code sync}) or has a queue of
+ * {@value #QUEUE_SIZE} messages that blocks when full ({@code async}).  The
+ * log is flushed after every message, as it is by default.
+ *
+ * @author william
+ * @since 2026-10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LogFileBenchmark
+{
+    /** The bytes written before a file rolls */
+    private static final long ROLL_BYTES = 64L * 1024 * 1024;
+    /** The messages in the queue of an asynchronous writer */
+    private static final int QUEUE_SIZE = 8192;
+
+    /** The kind of log file */
+    @Param({"null", "file", "dataSet"})
+    public String logFile;
+    /** The kind of log writer */
+    @Param({"sync", "async"})
+    public String writer;
+
+    /** The directory holding the log files */
+    private File directory;
+    /** The logger being measured */
+    private Logger logger;
+    /** Data included in the messages */
+    private DataSet data;
+
+    @Setup
+    public void setUp()
+            throws IOException
+    {
+        this.directory = Files.createTempDirectory("lxLogging-bench").toFile();
+        RollingPolicy rolling = new RollingPolicy(LogFileBenchmark.ROLL_BYTES, 0, 1, 0);
+        LogFile log;
+        switch (this.logFile)
+        {
+            case "file" :
+            {
+                log = new StreamLogFile(new File(this.directory, "bench.log"), rolling);
+                break;
+            }
+            case "dataSet" :
+            {
+                log = new DataSetLogFile(new File(this.directory, "bench.dat"), rolling);
+                break;
+            }
+            default :
+            {
+                log = new StreamLogFile(new PrintStream(new NullOutputStream()));
+            }
+        }
+        Logger.setLogWriter("async".equals(this.writer) ?
+                new LogWriter(log, new FlushPolicy(), LogFileBenchmark.QUEUE_SIZE, OverflowPolicy.BLOCK) :
+                new LogWriter(log, new FlushPolicy()));
+        this.logger = new Logger(LogFileBenchmark.class.getSimpleName(), "bench");
+        this.data = new ArrayDataSet()
+                .put("id", 42)
+                .put("name", "value");
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        Logger.close();
+        File[] files = this.directory.listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    @Benchmark
+    public void info()
+    {
+        this.logger.info("information message");
+    }
+
+    @Benchmark
+    public void infoData()
+    {
+        this.logger.info("information message", this.data);
+    }
+}
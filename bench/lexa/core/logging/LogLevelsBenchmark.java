@@ -0,0 +1,105 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * LogLevelsBenchmark.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-021    Benchmarks of the log level checks
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import lexa.core.data.ArrayDataSet;
+import lexa.core.data.DataSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks of {@link LogLevels#isLogged(String, String)}.
+ * <p>The {@code wildcard} configuration has only the wildcard class and type.
+ * The {@code deep} configuration has {@value #CLASSES} classes, each with
+ * {@value #TYPES} types, and the names checked are found in it, fall back to
+ * the class's wildcard type, or fall back to the wildcard class.
+ *
+ * @author william
+ * @since 2026-10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LogLevelsBenchmark
+{
+    /** The classes in the deep configuration */
+    private static final int CLASSES = 500;
+    /** The types for each class in the deep configuration */
+    private static final int TYPES = 20;
+
+    /** The configuration of the levels */
+    @Param({"wildcard", "deep"})
+    public String config;
+
+    /** The levels being checked */
+    private LogLevels levels;
+
+    @Setup
+    public void setUp()
+    {
+        Logger.setLogWriter(new LogWriter(
+                new StreamLogFile(new PrintStream(new NullOutputStream()))));
+        this.levels = new LogLevels();
+        if ("deep".equals(this.config))
+        {
+            DataSet tree = new ArrayDataSet();
+            for (int c = 0; c < LogLevelsBenchmark.CLASSES; c++)
+            {
+                DataSet types = new ArrayDataSet()
+                        .put(LogLevels.WILD_CARD, c % 2 == 0);
+                for (int t = 0; t < LogLevelsBenchmark.TYPES; t++)
+                {
+                    types.put("TYPE" + t, t % 3 != 0);
+                }
+                tree.put("lexa.bench.Class" + c, types);
+            }
+            this.levels.setLogging(tree);
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        Logger.close();
+    }
+
+    @Benchmark
+    public boolean configured()
+    {
+        return this.levels.isLogged("lexa.bench.Class250", "TYPE10");
+    }
+
+    @Benchmark
+    public boolean typeWildcard()
+    {
+        return this.levels.isLogged("lexa.bench.Class250", "OTHER");
+    }
+
+    @Benchmark
+    public boolean classWildcard()
+    {
+        return this.levels.isLogged("lexa.bench.Unknown", "INFO");
+    }
+}
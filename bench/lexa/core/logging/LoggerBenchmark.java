@@ -0,0 +1,110 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * LoggerBenchmark.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-021    Benchmarks of the Logger calls
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import lexa.core.data.ArrayDataSet;
+import lexa.core.data.DataSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks of the {@link Logger} calls made by applications.
+ * <p>Messages are written synchronously to a {@link StreamLogFile} on a
+ * {@link NullOutputStream}, so the cost measured is the check of the log
+ * levels, the rendering of the message and the writer's lock.  {@code DEBUG}
+ * messages are switched off, so {@link #debugFiltered()} measures a message
+ * that is not logged.
+ *
+ * @author william
+ * @since 2026-10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoggerBenchmark
+{
+    /** The logger being measured */
+    private Logger logger;
+    /** Data included in the messages */
+    private DataSet data;
+    /** Exception included in the error messages */
+    private Throwable throwable;
+
+    @Setup
+    public void setUp()
+    {
+        Logger.setLogWriter(new LogWriter(
+                new StreamLogFile(new PrintStream(new NullOutputStream()))));
+        Logger.logLevels().setLogging(LogLevels.WILD_CARD, "DEBUG", false);
+        this.logger = new Logger(LoggerBenchmark.class.getSimpleName(), "bench");
+        this.data = new ArrayDataSet()
+                .put("id", 42)
+                .put("name", "value")
+                .put("nested", new ArrayDataSet().put("flag", true));
+        this.throwable = new IllegalStateException("benchmark failure");
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        Logger.logLevels().setLogging(LogLevels.WILD_CARD, "DEBUG", true);
+        Logger.close();
+    }
+
+    @Benchmark
+    public void debugFiltered()
+    {
+        this.logger.debug("not logged");
+    }
+
+    @Benchmark
+    public void info()
+    {
+        this.logger.info("information message");
+    }
+
+    @Benchmark
+    public void infoData()
+    {
+        this.logger.info("information message", this.data);
+    }
+
+    @Benchmark
+    public void infoArgs()
+    {
+        this.logger.info("information message ", null, 42, " of ", 100);
+    }
+
+    @Benchmark
+    public void infoDataArgs()
+    {
+        this.logger.info("information message ", this.data, 42, " of ", 100);
+    }
+
+    @Benchmark
+    public void errorThrowable()
+    {
+        this.logger.error("error message", this.throwable);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * ArchiveCompressor.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-013    Compress archived logs in the background
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses archived log files with gzip.
+ * <p>Files are compressed by a pool of low priority daemon threads, so archiving
+ * a log never waits for it to be compressed.  The compressed file is written
+ * alongside the archive with {@value #EXTENSION} added to its name, and the
+ * archive is only deleted once the compressed file is complete.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class ArchiveCompressor
+{
+    /** Extension added to the name of a compressed archive */
+    static final String EXTENSION = ".gz";
+    /** Extension used while an archive is being compressed */
+    private static final String WORKING_EXTENSION = ".gz.tmp";
+    /** Size of the buffers used for compressing */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /** Number used to name the compression threads */
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    /** The threads compressing the archives */
+    private final ThreadPoolExecutor executor;
+    /** The compression level, from {@code 1} to {@code 9} */
+    private final int level;
+
+    /**
+     * Create a compressor.
+     * @param   threads
+     *          the number of archives compressed at the same time
+     * @param   level
+     *          the compression level, from {@code 1} for the fastest
+     *          to {@code 9} for the smallest
+     */
+    ArchiveCompressor(int threads, int level)
+    {
+        if (threads < 1 ||
+                level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)
+        {
+            throw new IllegalArgumentException("Invalid compression settings");
+        }
+        this.level = level;
+        this.executor = new ThreadPoolExecutor(threads, threads,
+                0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable,
+                            "lxLogging-compress-" + ArchiveCompressor.THREAD_NUMBER.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queue an archive to be compressed.
+     * @param   archive
+     *          the archived log file
+     */
+    void compress(File archive)
+    {
+        this.executor.execute(() -> this.compressNow(archive));
+    }
+
+    /**
+     * Compress an archive, replacing it with the compressed file.
+     * <br>
+     * Failures are reported to {@link System#err} and leave the archive in place.
+     * @param   archive
+     *          the archived log file
+     */
+    private void compressNow(File archive)
+    {
+        if (!archive.exists())
+        {
+            // already removed from the archive
+            return;
+        }
+        File working = new File(archive.getPath() + ArchiveCompressor.WORKING_EXTENSION);
+        File compressed = new File(archive.getPath() + ArchiveCompressor.EXTENSION);
+        // kept for the compressed file, as pruning goes by the time last modified
+        long lastModified = archive.lastModified();
+        try
+        {
+            try (InputStream in = new FileInputStream(archive);
+                    OutputStream out = new LevelledGZIPOutputStream(
+                            new FileOutputStream(working), this.level))
+            {
+                byte[] buffer = new byte[ArchiveCompressor.BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) >= 0)
+                {
+                    out.write(buffer, 0, read);
+                }
+            }
+            Files.move(working.toPath(), compressed.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            if (!compressed.setLastModified(lastModified))
+            {
+                System.err.println("lexa.core.logging.ArchiveCompressor.compress() cannot set the time of " + compressed);
+            }
+            Files.delete(archive.toPath());
+        }
+        catch (IOException ex)
+        {
+            System.err.println("lexa.core.logging.ArchiveCompressor.compress() failed for " + archive);
+            ex.printStackTrace(System.err);
+            working.delete();
+        }
+    }
+
+    /**
+     * Stop accepting archives; those already queued are still compressed.
+     */
+    void shutdown()
+    {
+        this.executor.shutdown();
+    }
+
+    /**
+     * A gzip stream with a set compression level.
+     */
+    private static class LevelledGZIPOutputStream
+            extends GZIPOutputStream
+    {
+        private LevelledGZIPOutputStream(OutputStream out, int level)
+                throws IOException
+        {
+            super(out, ArchiveCompressor.BUFFER_SIZE);
+            this.def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,556 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * BinaryLogFile.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-014    Compact binary log format
+ * 2026-10-18   WNW user-015    Share the dictionary size with the text logs
+ * 2026-10-18   WNW user-022    Count the bytes written
+ * 2026-10-18   WNW user-023    Sync the file to storage
+ * 2026-10-18   WNW user-013    Hold back compressing the archive until the file is closed
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import lexa.core.data.DataArray;
+import lexa.core.data.DataItem;
+import lexa.core.data.DataSet;
+import lexa.core.data.DataType;
+import lexa.core.data.DataValue;
+
+/**
+ * A log file written in a compact binary format.
+ * <p>The file starts with the bytes {@code LXLB} and a version, followed by
+ * records.  Each record is its length as a varint followed by a kind byte:
+ * <ul>
+ * <li>{@code M} a message;
+ * <li>{@code R} a reset, after which the dictionary is empty and the time stamp
+ *      and id are no longer relative to the previous message.
+ * </ul>
+ * <p>A message record holds:
+ * <pre>
+ * flags            byte; {@code 1} thread id, {@code 2} data, {@code 4} exception
+ * dateStamp        signed varint, relative to the previous message
+ * id               signed varint, relative to the previous message; or
+ *                  thread id and sequence as varints when identified by thread
+ * name, type       strings from the dictionary
+ * message          string, with any arguments appended
+ * [data]           count then key from the dictionary, type char and value for each item
+ * [exception]      text, message, frames from the dictionary, suppressed exceptions and cause
+ * </pre>
+ * <p>Strings are a varint of the UTF-8 length plus one, {@code 0} for null,
+ * followed by the bytes.  Recurring strings are held in a {@link StringDictionary}
+ * and written as a varint: {@code 0} for null, {@code 1} for a string that is
+ * not in the dictionary, {@code 2} for a string added to the dictionary with the
+ * next id, or the id plus {@value #REF_BASE}.  Each string is written in full
+ * the first time it is used in the file.
+ * <p>The file is read back by {@link BinaryLogReader}.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class BinaryLogFile
+        implements LogFile
+{
+    /** The bytes starting the file */
+    static final byte[] MAGIC = {'L', 'X', 'L', 'B'};
+    /** The version of the format */
+    static final byte VERSION = 1;
+    /** Kind of a message record */
+    static final byte MESSAGE = 'M';
+    /** Kind of a reset record */
+    static final byte RESET = 'R';
+    /** Flag for a message identified by thread */
+    static final int FLAG_THREAD_ID = 1;
+    /** Flag for a message with data */
+    static final int FLAG_DATA = 2;
+    /** Flag for a message with an exception */
+    static final int FLAG_THROWABLE = 4;
+    /** Reference to a null string */
+    static final int REF_NULL = 0;
+    /** Reference to a string written in full and not added to the dictionary */
+    static final int REF_LITERAL = 1;
+    /** Reference to a string written in full and added to the dictionary */
+    static final int REF_DEFINE = 2;
+    /** Added to the id of a string in the dictionary */
+    static final int REF_BASE = 3;
+    /** The maximum number of strings in the dictionary */
+    static final int DICTIONARY_SIZE = StringDictionary.DEFAULT_CAPACITY;
+    /** Size of the buffer for writing records */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /** Initial size of the buffer for encoding a record */
+    private static final int RECORD_SIZE = 4096;
+
+    /** The channel to write to */
+    private final FileChannel channel;
+    /** The file as opened for {@link LogArchive} */
+    private final LogArchive.Handle handle;
+    /** Buffer for the records being written */
+    private final ByteBuffer buffer;
+    /** Bytes written to the channel */
+    private final AtomicLong bytesWritten = new AtomicLong();
+    /** The recurring strings */
+    private final StringDictionary dictionary;
+    /** Buffer for the message text */
+    private final StringBuilder text;
+    /** Buffer for encoding a record */
+    private ByteBuffer record;
+    /** The time stamp of the previous message */
+    private long previousDateStamp;
+    /** The id of the previous message */
+    private long previousId;
+
+    /**
+     * Create a log file.
+     * <br>
+     * If the named file exists, it is archived.
+     * @param file the file for writing the log
+     */
+    BinaryLogFile(File file)
+    {
+		if (file == null) {
+            throw new IllegalArgumentException("Null log stream");
+		}
+        FileChannel channel = null;
+        LogArchive.Handle handle = null;
+        try
+        {
+            LogArchive.prepare(file);
+            channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            handle = LogArchive.opened(file);
+        }
+        catch (IOException ex)
+        {
+            new Logger("Logger","static").error("Rename failed", null, ex);
+        }
+        this.channel = channel;
+        this.handle = handle;
+        this.buffer = ByteBuffer.allocateDirect(BinaryLogFile.BUFFER_SIZE);
+        this.record = ByteBuffer.allocate(BinaryLogFile.RECORD_SIZE);
+        this.dictionary = new StringDictionary(BinaryLogFile.DICTIONARY_SIZE);
+        this.text = new StringBuilder();
+        this.buffer.put(BinaryLogFile.MAGIC).put(BinaryLogFile.VERSION);
+    }
+
+    @Override
+    public void close()
+    {
+        this.flush();
+        try
+        {
+            this.channel.close();
+        }
+        catch (IOException ex)
+        {
+            ex.printStackTrace(System.err);
+        }
+        LogArchive.closed(this.handle);
+    }
+
+    @Override
+    public void flush()
+    {
+        this.buffer.flip();
+        try
+        {
+            while (this.buffer.hasRemaining())
+            {
+                this.written(this.channel.write(this.buffer));
+            }
+        }
+        catch (IOException ex)
+        {
+            System.err.println("lexa.core.logging.BinaryLogFile.flush()");
+            ex.printStackTrace(System.err);
+        }
+        this.buffer.clear();
+    }
+
+    @Override
+    public void sync()
+    {
+        this.flush();
+        try
+        {
+            this.channel.force(false);
+        }
+        catch (IOException ex)
+        {
+            System.err.println("lexa.core.logging.BinaryLogFile.sync()");
+            ex.printStackTrace(System.err);
+        }
+    }
+
+    @Override
+    public long getBytesWritten()
+    {
+        return this.bytesWritten.get();
+    }
+
+    /**
+     * Count bytes written to the channel.
+     * @param   bytes
+     *          the number of bytes written
+     */
+    private void written(int bytes)
+    {
+        // only this thread writes the count
+        this.bytesWritten.lazySet(this.bytesWritten.get() + bytes);
+    }
+
+    @Override
+    public void write(Message message)
+    {
+        this.record.clear();
+        try
+        {
+            this.putMessage(message);
+        }
+        catch (RuntimeException ex)
+        {
+            // the dictionary may hold strings from the failed record
+            System.err.println("\n**ERROR IN LOGGING**");
+            ex.printStackTrace(System.err);
+            System.err.println("****\n");
+            this.record.clear();
+            this.record.put(BinaryLogFile.RESET);
+            this.dictionary.clear();
+            this.previousDateStamp = 0;
+            this.previousId = 0;
+        }
+        this.writeRecord();
+    }
+
+    /**
+     * Write the encoded record to the buffer.
+     * <br>
+     * A record too large for the buffer is written straight to the channel.
+     */
+    private void writeRecord()
+    {
+        int length = this.record.position();
+        if (this.buffer.remaining() < length + 5)
+        {
+            this.flush();
+        }
+        BinaryLogFile.putVarLong(this.buffer, length);
+        this.record.flip();
+        if (this.buffer.remaining() >= length)
+        {
+            this.buffer.put(this.record);
+            return;
+        }
+        this.flush();
+        try
+        {
+            while (this.record.hasRemaining())
+            {
+                this.written(this.channel.write(this.record));
+            }
+        }
+        catch (IOException ex)
+        {
+            System.err.println("lexa.core.logging.BinaryLogFile.write()");
+            ex.printStackTrace(System.err);
+        }
+    }
+
+    /**
+     * Encode a message record.
+     * @param   message
+     *          the message to encode
+     */
+    private void putMessage(Message message)
+    {
+        // render the text first, as the arguments may fail
+        CharSequence messageText = message.getMessage();
+        Object[] args = message.getArgs();
+        if (args != null && args.length > 0)
+        {
+            this.text.setLength(0);
+            this.text.append(messageText);
+            for (Object obj : args)
+            {
+                this.text.append(obj);
+            }
+            messageText = this.text;
+        }
+        DataSet data = message.getDataSet();
+        Throwable throwable = message.getThrowable();
+        int flags = (message.getThreadId() < 0 ? 0 : BinaryLogFile.FLAG_THREAD_ID) |
+                (data == null ? 0 : BinaryLogFile.FLAG_DATA) |
+                (throwable == null ? 0 : BinaryLogFile.FLAG_THROWABLE);
+        this.ensure(2);
+        this.record.put(BinaryLogFile.MESSAGE).put((byte)flags);
+        this.putSigned(message.getDateStamp() - this.previousDateStamp);
+        this.previousDateStamp = message.getDateStamp();
+        if (message.getThreadId() < 0)
+        {
+            this.putSigned(message.getIdValue() - this.previousId);
+            this.previousId = message.getIdValue();
+        }
+        else
+        {
+            this.putUnsigned(message.getThreadId());
+            this.putUnsigned(message.getSequence());
+        }
+        this.putRef(message.getName());
+        this.putRef(message.getType());
+        this.putString(messageText);
+        if (data != null)
+        {
+            this.putDataSet(data);
+        }
+        if (throwable != null)
+        {
+            Set<Throwable> written = Collections.newSetFromMap(new IdentityHashMap<>());
+            this.putThrowable(throwable, written);
+        }
+    }
+
+    /**
+     * Encode a data set.
+     * @param   data
+     *          the data set to encode
+     */
+    private void putDataSet(DataSet data)
+    {
+        this.putUnsigned(data.size());
+        for (DataItem item : data)
+        {
+            this.putRef(item.getKey());
+            this.putValue(item.getValue());
+        }
+    }
+
+    /**
+     * Encode a value as its type char followed by the value.
+     * @param   value
+     *          the value to encode
+     */
+    private void putValue(DataValue value)
+    {
+        DataType type = value.getType();
+        Object obj = value.getObject();
+        if (obj == null)
+        {
+            type = DataType.NULL;
+        }
+        this.ensure(1);
+        this.record.put((byte)type.getTypeChar());
+        switch (type)
+        {
+            case ARRAY :
+            {
+                DataArray array = value.getArray();
+                this.putUnsigned(array.size());
+                for (DataValue element : array)
+                {
+                    this.putValue(element);
+                }
+                break;
+            }
+            case BOOLEAN :
+            {
+                this.ensure(1);
+                this.record.put((byte)(value.getBoolean() ? 1 : 0));
+                break;
+            }
+            case DATA_SET :
+            {
+                this.putDataSet(value.getDataSet());
+                break;
+            }
+            case DATE :
+            {
+                this.putSigned(((Date)obj).getTime());
+                break;
+            }
+            case DOUBLE :
+            {
+                this.ensure(8);
+                this.record.putDouble(((Number)obj).doubleValue());
+                break;
+            }
+            case INTEGER :
+            case LONG :
+            {
+                this.putSigned(((Number)obj).longValue());
+                break;
+            }
+            case STRING :
+            {
+                this.putString(value.getString());
+                break;
+            }
+            default :
+            {
+                // NULL has no value
+                break;
+            }
+        }
+    }
+
+    /**
+     * Encode an exception with its suppressed exceptions and cause.
+     * <br>
+     * An exception already written is left out, so a circular reference ends.
+     * @param   throwable
+     *          the exception to encode
+     * @param   written
+     *          the exceptions already written
+     */
+    private void putThrowable(Throwable throwable, Set<Throwable> written)
+    {
+        written.add(throwable);
+        this.putString(throwable.toString());
+        this.putString(throwable.getMessage());
+        String[] frames = DecodedThrowable.frames(throwable);
+        this.putUnsigned(frames.length);
+        for (String frame : frames)
+        {
+            this.putRef(frame);
+        }
+        List<Throwable> suppressed = new ArrayList<>();
+        for (Throwable se : throwable.getSuppressed())
+        {
+            if (!written.contains(se))
+            {
+                suppressed.add(se);
+            }
+        }
+        this.putUnsigned(suppressed.size());
+        for (Throwable se : suppressed)
+        {
+            this.putThrowable(se, written);
+        }
+        Throwable cause = throwable.getCause();
+        boolean hasCause = cause != null && !written.contains(cause);
+        this.ensure(1);
+        this.record.put((byte)(hasCause ? 1 : 0));
+        if (hasCause)
+        {
+            this.putThrowable(cause, written);
+        }
+    }
+
+    /**
+     * Encode a recurring string as a reference to the dictionary.
+     * @param   string
+     *          the string to encode
+     */
+    private void putRef(String string)
+    {
+        if (string == null)
+        {
+            this.putUnsigned(BinaryLogFile.REF_NULL);
+            return;
+        }
+        int id = this.dictionary.find(string);
+        if (id >= 0)
+        {
+            this.putUnsigned(id + BinaryLogFile.REF_BASE);
+            return;
+        }
+        this.putUnsigned(this.dictionary.add(string) < 0 ?
+                BinaryLogFile.REF_LITERAL :
+                BinaryLogFile.REF_DEFINE);
+        this.putString(string);
+    }
+
+    /**
+     * Encode a string as its UTF-8 length plus one followed by the bytes.
+     * @param   string
+     *          the string to encode, may be {@code null}
+     */
+    private void putString(CharSequence string)
+    {
+        if (string == null)
+        {
+            this.putUnsigned(0);
+            return;
+        }
+        int length = Utf8Encoder.length(string);
+        this.putUnsigned(length + 1);
+        this.ensure(length);
+        Utf8Encoder.encode(string, 0, this.record);
+    }
+
+    /**
+     * Encode a signed value as a zig-zag varint.
+     * @param   value
+     *          the value to encode
+     */
+    private void putSigned(long value)
+    {
+        this.putUnsigned((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Encode an unsigned value as a varint.
+     * @param   value
+     *          the value to encode
+     */
+    private void putUnsigned(long value)
+    {
+        this.ensure(10);
+        BinaryLogFile.putVarLong(this.record, value);
+    }
+
+    /**
+     * Write a value as a varint, seven bits to a byte with the lowest first.
+     * @param   buffer
+     *          the buffer to write to
+     * @param   value
+     *          the value to write, treated as unsigned
+     */
+    static void putVarLong(ByteBuffer buffer, long value)
+    {
+        while ((value & ~0x7fL) != 0)
+        {
+            buffer.put((byte)((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte)value);
+    }
+
+    /**
+     * Make sure the record buffer has room for more bytes.
+     * @param   bytes
+     *          the number of bytes needed
+     */
+    private void ensure(int bytes)
+    {
+        if (this.record.remaining() >= bytes)
+        {
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(
+                Math.max(this.record.capacity() * 2, this.record.position() + bytes));
+        this.record.flip();
+        larger.put(this.record);
+        this.record = larger;
+    }
+}
@@ -0,0 +1,434 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * BinaryLogReader.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-014    Read back and print binary logs
+ * 2026-10-18   WNW user-016    Print data sets through DataSetRenderer
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import lexa.core.data.ArrayDataArray;
+import lexa.core.data.ArrayDataSet;
+import lexa.core.data.DataArray;
+import lexa.core.data.DataSet;
+import lexa.core.data.DataType;
+import lexa.core.data.io.DataWriter;
+
+/**
+ * Reads the messages from a log written by {@link BinaryLogFile}.
+ * <p>Messages are read one at a time, so a log of any size can be streamed.
+ * A record cut short at the end of the log, as left when a process stops while
+ * writing, is treated as the end of the log.
+ * <p>The reader can also be run to print binary logs in the text or
+ * {@link DataSet} layouts:
+ * <pre>java lexa.core.logging.BinaryLogReader [-dataSet] &lt;file&gt; ...</pre>
+ *
+ * @author william
+ * @since 2026-10
+ */
+public class BinaryLogReader
+        implements Closeable
+{
+    /** The stream being read */
+    private final DataInputStream in;
+    /** The recurring strings */
+    private final StringDictionary dictionary;
+    /** The types of data values by type char */
+    private final DataType[] types;
+    /** The current record */
+    private ByteBuffer record;
+    /** The time stamp of the previous message */
+    private long previousDateStamp;
+    /** The id of the previous message */
+    private long previousId;
+
+    /**
+     * Create a reader.
+     * @param   in
+     *          the stream holding the log
+     * @throws  IOException
+     *          when the stream cannot be read or is not a binary log
+     */
+    public BinaryLogReader(InputStream in)
+            throws IOException
+    {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        this.dictionary = new StringDictionary(BinaryLogFile.DICTIONARY_SIZE);
+        this.types = new DataType[128];
+        for (DataType type : DataType.values())
+        {
+            this.types[type.getTypeChar()] = type;
+        }
+        this.record = ByteBuffer.allocate(4096);
+        byte[] magic = new byte[BinaryLogFile.MAGIC.length];
+        try
+        {
+            this.in.readFully(magic);
+            if (!Arrays.equals(magic, BinaryLogFile.MAGIC) ||
+                    this.in.readByte() != BinaryLogFile.VERSION)
+            {
+                throw new IOException("Not a binary log");
+            }
+        }
+        catch (EOFException ex)
+        {
+            throw new IOException("Not a binary log", ex);
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        this.in.close();
+    }
+
+    /**
+     * Read the next message.
+     * @return  the next message, or {@code null} at the end of the log
+     * @throws  IOException
+     *          when the log cannot be read
+     */
+    Message read()
+            throws IOException
+    {
+        while (this.readRecord())
+        {
+            byte kind = this.record.get();
+            if (kind == BinaryLogFile.MESSAGE)
+            {
+                return this.getMessage();
+            }
+            if (kind == BinaryLogFile.RESET)
+            {
+                this.dictionary.clear();
+                this.previousDateStamp = 0;
+                this.previousId = 0;
+            }
+            // any other kind of record is skipped
+        }
+        return null;
+    }
+
+    /**
+     * Read the next record.
+     * @return  {@code true} if a record was read,
+     *          {@code false} at the end of the log
+     * @throws  IOException
+     *          when the log cannot be read
+     */
+    private boolean readRecord()
+            throws IOException
+    {
+        long length = 0;
+        int shift = 0;
+        int b;
+        do
+        {
+            b = this.in.read();
+            if (b < 0)
+            {
+                return false;
+            }
+            length |= (long)(b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        if (length < 1 || length > Integer.MAX_VALUE)
+        {
+            throw new IOException("Invalid record length " + length);
+        }
+        if (this.record.capacity() < length)
+        {
+            this.record = ByteBuffer.allocate((int)length);
+        }
+        this.record.clear().limit((int)length);
+        try
+        {
+            this.in.readFully(this.record.array(), 0, (int)length);
+        }
+        catch (EOFException ex)
+        {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decode a message record.
+     * @return the message
+     */
+    private Message getMessage()
+    {
+        int flags = this.record.get();
+        long dateStamp = this.previousDateStamp + this.getSigned();
+        this.previousDateStamp = dateStamp;
+        long id = 0;
+        long threadId = -1;
+        long sequence = 0;
+        if ((flags & BinaryLogFile.FLAG_THREAD_ID) == 0)
+        {
+            id = this.previousId + this.getSigned();
+            this.previousId = id;
+        }
+        else
+        {
+            threadId = this.getUnsigned();
+            sequence = this.getUnsigned();
+        }
+        String name = this.getRef();
+        String type = this.getRef();
+        String message = this.getString();
+        DataSet data = (flags & BinaryLogFile.FLAG_DATA) == 0 ?
+                null :
+                this.getDataSet();
+        Throwable throwable = (flags & BinaryLogFile.FLAG_THROWABLE) == 0 ?
+                null :
+                this.getThrowable();
+        return new Message().restore(id, threadId, sequence, dateStamp,
+                name, type, message, data, throwable);
+    }
+
+    /**
+     * Decode a data set.
+     * @return the data set
+     */
+    private DataSet getDataSet()
+    {
+        DataSet data = new ArrayDataSet();
+        long size = this.getUnsigned();
+        for (long i = 0; i < size; i++)
+        {
+            String key = this.getRef();
+            data.put(key, this.getValue());
+        }
+        return data;
+    }
+
+    /**
+     * Decode a value.
+     * @return the value, as an object to put in a data set or array
+     */
+    private Object getValue()
+    {
+        int typeChar = this.record.get();
+        DataType type = typeChar < 0 ? null : this.types[typeChar];
+        if (type == null)
+        {
+            throw new IllegalStateException("Invalid data type " + typeChar);
+        }
+        switch (type)
+        {
+            case ARRAY :
+            {
+                DataArray array = new ArrayDataArray();
+                long size = this.getUnsigned();
+                for (long i = 0; i < size; i++)
+                {
+                    array.add(this.getValue());
+                }
+                return array;
+            }
+            case BOOLEAN :
+            {
+                return this.record.get() != 0;
+            }
+            case DATA_SET :
+            {
+                return this.getDataSet();
+            }
+            case DATE :
+            {
+                return new Date(this.getSigned());
+            }
+            case DOUBLE :
+            {
+                return this.record.getDouble();
+            }
+            case INTEGER :
+            {
+                return (int)this.getSigned();
+            }
+            case LONG :
+            {
+                return this.getSigned();
+            }
+            case STRING :
+            {
+                return this.getString();
+            }
+            default :
+            {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Decode an exception with its suppressed exceptions and cause.
+     * @return the exception
+     */
+    private DecodedThrowable getThrowable()
+    {
+        String text = this.getString();
+        String message = this.getString();
+        String[] frames = new String[(int)this.getUnsigned()];
+        for (int f = 0; f < frames.length; f++)
+        {
+            frames[f] = this.getRef();
+        }
+        DecodedThrowable[] suppressed = new DecodedThrowable[(int)this.getUnsigned()];
+        for (int s = 0; s < suppressed.length; s++)
+        {
+            suppressed[s] = this.getThrowable();
+        }
+        DecodedThrowable cause = this.record.get() == 0 ?
+                null :
+                this.getThrowable();
+        return new DecodedThrowable(text, message, frames, suppressed, cause);
+    }
+
+    /**
+     * Decode a recurring string.
+     * @return the string
+     */
+    private String getRef()
+    {
+        int ref = (int)this.getUnsigned();
+        switch (ref)
+        {
+            case BinaryLogFile.REF_NULL :
+            {
+                return null;
+            }
+            case BinaryLogFile.REF_LITERAL :
+            {
+                return this.getString();
+            }
+            case BinaryLogFile.REF_DEFINE :
+            {
+                String string = this.getString();
+                this.dictionary.add(string);
+                return string;
+            }
+            default :
+            {
+                return this.dictionary.get(ref - BinaryLogFile.REF_BASE);
+            }
+        }
+    }
+
+    /**
+     * Decode a string.
+     * @return the string, or {@code null}
+     */
+    private String getString()
+    {
+        int length = (int)this.getUnsigned() - 1;
+        if (length < 0)
+        {
+            return null;
+        }
+        String string = new String(this.record.array(), this.record.position(), length,
+                StandardCharsets.UTF_8);
+        this.record.position(this.record.position() + length);
+        return string;
+    }
+
+    /**
+     * Decode a zig-zag varint.
+     * @return the value
+     */
+    private long getSigned()
+    {
+        long value = this.getUnsigned();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Decode a varint.
+     * @return the value
+     */
+    private long getUnsigned()
+    {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do
+        {
+            b = this.record.get();
+            value |= (long)(b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * Print binary logs.
+     * <br>
+     * Each file named is printed in turn to {@link System#out} in the text layout,
+     * or in the {@link DataSet} layout when the first argument is {@code -dataSet}.
+     * @param   args
+     *          the files to print, optionally preceded by {@code -dataSet}
+     * @throws  IOException
+     *          when a file cannot be read
+     */
+    public static void main(String[] args)
+            throws IOException
+    {
+        boolean dataSet = args.length > 0 && "-dataSet".equals(args[0]);
+        int first = dataSet ? 1 : 0;
+        if (args.length == first)
+        {
+            System.err.println("Usage: java lexa.core.logging.BinaryLogReader [-dataSet] <file> ...");
+            System.exit(1);
+        }
+        PrintStream out = System.out;
+        DataWriter writer = dataSet ? new DataWriter(out) : null;
+        TextRenderer textRenderer = new TextRenderer();
+        DataSetRenderer dataSetRenderer = new DataSetRenderer();
+        for (int a = first; a < args.length; a++)
+        {
+            try (BinaryLogReader reader = new BinaryLogReader(new FileInputStream(args[a])))
+            {
+                Message message;
+                while ((message = reader.read()) != null)
+                {
+                    if (writer != null)
+                    {
+                        writer.write(dataSetRenderer.render(message));
+                    }
+                    else
+                    {
+                        out.append(textRenderer.render(message));
+                    }
+                }
+            }
+        }
+        if (writer != null)
+        {
+            writer.close();
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * ChannelLogFile.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-010    Text log written through a file channel
+ * 2026-10-18   WNW user-015    Optional short form names and types
+ * 2026-10-18   WNW user-017    Take the renderer from the caller
+ * 2026-10-18   WNW user-022    Count the bytes written
+ * 2026-10-18   WNW user-023    Sync the file to storage
+ * 2026-10-18   WNW user-013    Hold back compressing the archive until the file is closed
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A text log file written through a {@link FileChannel}.
+ * <p>Each message is rendered by a {@link TextRenderer} and encoded straight
+ * into a reused direct buffer, which is written to the channel when it is full
+ * or the log is flushed.  The file content is the same as a {@link StreamLogFile}
+ * writing to the same file, encoded as UTF-8.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class ChannelLogFile
+        implements LogFile
+{
+    /** Size of the buffer for encoding messages */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** The channel to write to */
+    private final FileChannel channel;
+    /** The file as opened for {@link LogArchive} */
+    private final LogArchive.Handle handle;
+    /** Renders the messages as text */
+    private final TextRenderer renderer;
+    /** Buffer for the encoded messages */
+    private final ByteBuffer buffer;
+    /** Bytes written to the channel */
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    /**
+     * Create a log file.
+     * <br>
+     * If the named file exists, it is archived.
+     * @param file the file for writing the log
+     */
+    ChannelLogFile(File file)
+    {
+        this(file, new TextRenderer());
+    }
+
+    /**
+     * Create a log file.
+     * <br>
+     * If the named file exists, it is archived.
+     * @param file the file for writing the log
+     * @param renderer renders the messages as text
+     */
+    ChannelLogFile(File file, TextRenderer renderer)
+    {
+		if (file == null) {
+            throw new IllegalArgumentException("Null log stream");
+		}
+        FileChannel channel = null;
+        LogArchive.Handle handle = null;
+        try
+        {
+            LogArchive.prepare(file);
+            channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            handle = LogArchive.opened(file);
+        }
+        catch (IOException ex)
+        {
+            new Logger("Logger","static").error("Rename failed", null, ex);
+        }
+        this.channel = channel;
+        this.handle = handle;
+        this.renderer = renderer;
+        this.buffer = ByteBuffer.allocateDirect(ChannelLogFile.BUFFER_SIZE);
+    }
+
+    @Override
+    public void close()
+    {
+        this.flush();
+        try
+        {
+            this.channel.close();
+        }
+        catch (IOException ex)
+        {
+            ex.printStackTrace(System.err);
+        }
+        LogArchive.closed(this.handle);
+    }
+
+    @Override
+    public void flush()
+    {
+        this.buffer.flip();
+        try
+        {
+            while (this.buffer.hasRemaining())
+            {
+                int bytes = this.channel.write(this.buffer);
+                // only this thread writes the count
+                this.bytesWritten.lazySet(this.bytesWritten.get() + bytes);
+            }
+        }
+        catch (IOException ex)
+        {
+            System.err.println("lexa.core.logging.ChannelLogFile.flush()");
+            ex.printStackTrace(System.err);
+        }
+        this.buffer.clear();
+    }
+
+    @Override
+    public void sync()
+    {
+        this.flush();
+        try
+        {
+            this.channel.force(false);
+        }
+        catch (IOException ex)
+        {
+            System.err.println("lexa.core.logging.ChannelLogFile.sync()");
+            ex.printStackTrace(System.err);
+        }
+    }
+
+    @Override
+    public long getBytesWritten()
+    {
+        return this.bytesWritten.get();
+    }
+
+    @Override
+    public void write(Message message)
+    {
+        CharSequence text;
+        try
+        {
+            text = this.renderer.render(message);
+        }
+        catch (Exception ex)
+        {
+            StringWriter error = new StringWriter();
+            error.write("\n**ERROR IN LOGGING**\n");
+            ex.printStackTrace(new PrintWriter(error));
+            error.write("****\n\n");
+            text = error.getBuffer();
+        }
+        int index = Utf8Encoder.encode(text, 0, this.buffer);
+        while (index < text.length())
+        {
+            this.flush();
+            index = Utf8Encoder.encode(text, index, this.buffer);
+        }
+    }
+}
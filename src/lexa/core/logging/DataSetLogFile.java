@@ -12,19 +12,31 @@
  * ----------   --- ----------  --------------------------------------------------
  * 2016-09-14   WNW             Add support to output the log to a DataWriter
  * 2016-09-14   WNW             Update javadoc
+ * 2026-10-18   WNW user-006    Build the message text in a reused buffer
+ * 2026-10-18   WNW user-010    Archive through LogArchive
+ * 2026-10-18   WNW user-012    Roll the log by size or time
+ * 2026-10-18   WNW user-015    Optional short form names and types
+ * 2026-10-18   WNW user-016    Render messages into a reused data set
+ * 2026-10-18   WNW user-018    Take the renderer from the caller
+ * 2026-10-18   WNW user-013    Hold back compressing the archive until the file is closed
+ * 2026-10-18   WNW user-012    Open the new file before closing the old when rolling
+ * 2026-10-18   WNW user-012    Close the file before archiving it when rolling
  *================================================================================
  */
 package lexa.core.logging;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.util.Date;
-import lexa.core.data.formatting.DateTimeFormat;
 import lexa.core.data.io.DataWriter;
 
 /**
  * A log file written to a DAtaWriter
+ * <p>When writing to a file a {@link RollingPolicy} can be given; once it is due
+ * the file is closed, archived and a new one started by the thread writing
+ * the log.
+ * The size of the file is checked every {@value #SIZE_CHECK_MESSAGES} messages.
  * @author william
  * @since 2016-09
  */
@@ -32,17 +44,55 @@ class DataSetLogFile
         implements LogFile
     {
 
+    /** Number of messages written between checks of the file size */
+    private static final int SIZE_CHECK_MESSAGES = 64;
     /** the data writer */
-    private final DataWriter writer;
+    private DataWriter writer;
+    /** The file being written, or {@code null} for a supplied writer */
+    private final File file;
+    /** The file as opened for {@link LogArchive}, or {@code null} for a supplied writer */
+    private LogArchive.Handle handle;
+    /** Decides when the file is rolled, or {@code null} to never roll */
+    private final RollingPolicy rolling;
+    /** Messages written since the file size was checked */
+    private int unchecked;
+    /** Renders the messages as data sets */
+    private final DataSetRenderer renderer;
 
     /**
      * Create a data writer to a file
      * <br>
      * Creates a new writer, if the named file exists, it is archived.
      * @param file the file for writing the log 
-     * @throws FileNotFoundException when the file could not be found
      */
     public DataSetLogFile(File file)
+    {
+        this(file, null);
+    }
+
+    /**
+     * Create a data writer to a file that rolls
+     * <br>
+     * Creates a new writer, if the named file exists, it is archived.
+     * @param file the file for writing the log 
+     * @param rolling decides when the file is rolled, or {@code null} to never roll
+     */
+    DataSetLogFile(File file, RollingPolicy rolling)
+    {
+        this(file, rolling, new DataSetRenderer());
+    }
+
+    /**
+     * Create a data writer to a file that rolls
+     * <br>
+     * Creates a new writer, if the named file exists, it is archived.
+     * The renderer is reset for each file, so each file defines the short
+     * names and writes the stack traces it uses.
+     * @param file the file for writing the log 
+     * @param rolling decides when the file is rolled, or {@code null} to never roll
+     * @param renderer renders the messages as data sets
+     */
+    DataSetLogFile(File file, RollingPolicy rolling, DataSetRenderer renderer)
     {
         //this.writer = new DataWriter(file);
 		if (file == null) {
@@ -51,32 +101,18 @@ class DataSetLogFile
         DataWriter writer = null;
         try
         {
-            if (!file.exists()) {
-                File parent = file.getParentFile();
-                // does the directory?
-                if (parent != null && !parent.exists())
-                {
-                    parent.mkdirs();
-                }
-            }
-            else
-            {
-				// move to archive
-				String path = file.getParent() + "//archive//";
-				String timeStamp = new DateTimeFormat(".yyyyMMdd_HHmmss_SSS.").toString(
-						new Date(file.lastModified()));
-				String archiveName = file.getName().replaceFirst("\\.", timeStamp);
-				File archive = new File(path,archiveName);
-				archive.getParentFile().mkdirs();
-				Files.move(file.toPath(), archive.toPath());
-            }
+            LogArchive.prepare(file);
             writer = new DataWriter(file);
+            this.handle = LogArchive.opened(file);
         }
         catch (IOException ex)
         {
             new Logger("Logger","static").error("Rename failed", null, ex);
         }
         this.writer=writer;
+        this.file = file;
+        this.rolling = rolling;
+        this.renderer = renderer;
     }
 
     /**
@@ -86,6 +122,9 @@ class DataSetLogFile
     public DataSetLogFile(DataWriter writer)
     {        
         this.writer = writer;
+        this.file = null;
+        this.rolling = null;
+        this.renderer = new DataSetRenderer();
     }
 
     @Override
@@ -98,12 +137,14 @@ class DataSetLogFile
         {
             ex.printStackTrace(System.err);
         }
+        LogArchive.closed(this.handle);
+        this.handle = null;
     }
 
     @Override
     public void flush()
     {
-        // can't flush
+        // a DataWriter cannot be flushed, so a durability is not accepted for this log
     }
 
     @Override
@@ -111,12 +152,95 @@ class DataSetLogFile
     {
         try
         {
-            this.writer.write(message.getData());
-        } catch (IOException ex)
+            this.writer.write(this.renderer.render(message));
+        } catch (IOException | RuntimeException ex)
         {
             System.err.println("lexa.core.logging.DataSetLogFile.write()");
             ex.printStackTrace(System.err);
+            // the names defined by the failed message are not written
+            this.renderer.reset();
+        }
+        if (this.rolling != null && this.isRollDue())
+        {
+            this.roll();
+        }
+    }
+
+    /**
+     * Indicates if the file should roll now.
+     * <br>
+     * The size of the file is only checked every {@value #SIZE_CHECK_MESSAGES} messages.
+     * @return  {@code true} if the file should roll,
+     *          otherwise {@code false}
+     */
+    private boolean isRollDue()
+    {
+        long bytes = 0;
+        if (this.rolling.hasMaxBytes() &&
+                ++this.unchecked >= DataSetLogFile.SIZE_CHECK_MESSAGES)
+        {
+            this.unchecked = 0;
+            bytes = this.file.length();
+        }
+        return this.rolling.isDue(bytes);
+    }
+
+    /**
+     * Archive the current file and start a new one.
+     * <br>
+     * The current file is closed before it is archived, as a file that is
+     * open cannot be moved on every platform.  If it cannot be archived it is
+     * opened again and the log carries on at its end; if even that fails the
+     * log is written to {@link System#err}.  Either way the roll is tried
+     * again later.
+     */
+    private void roll()
+    {
+        this.close();
+        boolean archived = true;
+        try
+        {
+            LogArchive.prepare(this.file);
+        }
+        catch (IOException ex)
+        {
+            System.err.println("lexa.core.logging.DataSetLogFile.roll()");
+            ex.printStackTrace(System.err);
+            archived = false;
+        }
+        try
+        {
+            this.writer = archived ?
+                    new DataWriter(this.file) :
+                    new DataWriter(new FileOutputStream(this.file, true));
+            this.handle = LogArchive.opened(this.file);
+        }
+        catch (IOException ex)
+        {
+            System.err.println("lexa.core.logging.DataSetLogFile.roll()");
+            ex.printStackTrace(System.err);
+            // closing the log must not close the standard error
+            this.writer = new DataWriter(new FilterOutputStream(System.err)
+            {
+                @Override
+                public void close()
+                        throws IOException
+                {
+                    this.flush();
+                }
+            });
+            this.renderer.reset();
+            archived = false;
+        }
+        if (!archived)
+        {
+            this.rolling.failed();
+            return;
         }
+        LogArchive.prune(this.file, this.rolling.getKeep(), this.rolling.getMaxAge());
+        this.unchecked = 0;
+        this.renderer.reset();
+        this.rolling.rolled();
     }
     
 }
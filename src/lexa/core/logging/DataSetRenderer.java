@@ -0,0 +1,198 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * DataSetRenderer.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-016    Render messages into a reused data set
+ * 2026-10-18   WNW user-018    Refer to repeated stack traces
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.util.Date;
+import lexa.core.data.ArrayDataSet;
+import lexa.core.data.DataSet;
+
+/**
+ * Renders a {@link Message} as a {@link DataSet}.
+ * <p>The data set has the same layout as {@link Message#getData(StringBuilder)},
+ * but the data sets and date are built once and refilled for each message,
+ * so a message without an exception only allocates its id and text.  Items
+ * are replaced in place, and the optional {@code data} and {@code exception}
+ * items are removed and added again, so the items stay in the same order.
+ * <p>With short names, the name and type are written in the short form of a
+ * {@link StringDictionary}; call {@link #reset() reset} when a new file is
+ * started so that the file defines each of them again.
+ * <p>With a {@link ThrowableCache}, the {@code exception} also holds the
+ * {@code trace} fingerprint and the {@code count} of times it has been seen;
+ * the {@code stack} is only included when the trace is written in full.
+ * <p>The data set returned is reused by the next call, so it must be written
+ * before the next message is rendered, and each thread writing to a log needs
+ * its own renderer.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class DataSetRenderer
+{
+    /** The data set holding the message under its id */
+    private final DataSet record;
+    /** The fields of the message */
+    private final DataSet fields;
+    /** The time stamp of the message */
+    private final Date dateStamp;
+    /** Buffer for building the text */
+    private final StringBuilder text;
+    /** The short forms of the names and types, or {@code null} for full names */
+    private final StringDictionary names;
+    /** The id of the previous message */
+    private String previousId;
+    /** The stack traces already written, or {@code null} to write each in full */
+    private final ThrowableCache traces;
+
+    /**
+     * Create a renderer.
+     */
+    DataSetRenderer()
+    {
+        this(false, null);
+    }
+
+    /**
+     * Create a renderer.
+     * @param   shortNames
+     *          {@code true} to write names and types in short form,
+     *          {@code false} to write them in full
+     * @param   traces
+     *          the stack traces already written; use {@code null} to write each in full.
+     */
+    DataSetRenderer(boolean shortNames, ThrowableCache traces)
+    {
+        this.traces = traces;
+        this.names = shortNames ?
+                new StringDictionary(StringDictionary.DEFAULT_CAPACITY) :
+                null;
+        this.dateStamp = new Date(0);
+        this.text = new StringBuilder();
+        this.fields = new ArrayDataSet()
+                .put("dateStamp", this.dateStamp)
+                .put("name", null)
+                .put("type", null)
+                .put("message", null);
+        this.record = new ArrayDataSet();
+    }
+
+    /**
+     * Render a message.
+     * @param   message
+     *          the message to render
+     * @return  the message as a {@link DataSet}; this is reused by the next call.
+     */
+    DataSet render(Message message)
+    {
+        try
+        {
+            return this.renderData(message);
+        }
+        catch (RuntimeException ex)
+        {
+            // the names defined by the failed message are not written
+            this.reset();
+            throw ex;
+        }
+    }
+
+    /**
+     * Start again with no short names defined and no stack traces written.
+     */
+    void reset()
+    {
+        if (this.names != null)
+        {
+            this.names.clear();
+        }
+        if (this.traces != null)
+        {
+            this.traces.clear();
+        }
+    }
+
+    /**
+     * Render a message.
+     * @param   message
+     *          the message to render
+     * @return  the message as a {@link DataSet}
+     */
+    private DataSet renderData(Message message)
+    {
+        this.dateStamp.setTime(message.getDateStamp());
+        this.fields.put("name", this.shortName(message.getName()))
+                .put("type", this.shortName(message.getType()))
+                .put("message", message.getText(this.text));
+        this.fields.remove("data");
+        this.fields.remove("exception");
+        if (message.getDataSet() != null)
+        {
+            this.fields.put("data", message.getDataSet());
+        }
+        if (message.getThrowable() != null)
+        {
+            this.fields.put("exception", this.exceptionData(message));
+        }
+        if (this.previousId != null)
+        {
+            this.record.remove(this.previousId);
+        }
+        this.previousId = message.getId();
+        return this.record.put(this.previousId, this.fields);
+    }
+
+    /**
+     * Get the exception in a message as a {@link DataSet}.
+     * @param   message
+     *          the message with an exception
+     * @return  the message and stack of the exception, with the trace
+     *          fingerprint and count when repeated traces are recognised
+     */
+    private DataSet exceptionData(Message message)
+    {
+        if (this.traces == null)
+        {
+            return message.getExceptionData();
+        }
+        Throwable throwable = message.getThrowable();
+        ThrowableCache.Trace trace = this.traces.seen(throwable);
+        DataSet exception = new ArrayDataSet()
+                .put("message", throwable.getMessage())
+                .put("trace", trace.getId())
+                .put("count", trace.getCount());
+        if (trace.isFull())
+        {
+            exception.put("stack", trace.getStack(throwable));
+        }
+        return exception;
+    }
+
+    /**
+     * Get the name or type as it is written.
+     * @param   name
+     *          the name or type
+     * @return  the short form of the name, or the name when writing in full
+     */
+    private String shortName(String name)
+    {
+        if (this.names == null)
+        {
+            return name;
+        }
+        this.text.setLength(0);
+        return this.names.append(this.text, name).toString();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * DecodedThrowable.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-014    Exception read back from a binary log
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * An exception read back from a binary log.
+ * <p>The exception holds the text of the original exception, its message and
+ * its stack frames as text, along with any cause and suppressed exceptions.
+ * Its stack trace is printed in the same layout as the original; a circular
+ * reference in the original is not kept, so it is not printed.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class DecodedThrowable
+        extends Throwable
+{
+    private static final long serialVersionUID = 1L;
+
+    /** The text of the original exception */
+    private final String text;
+    /** The stack frames of the original exception */
+    private final String[] frames;
+    /** The suppressed exceptions */
+    private final DecodedThrowable[] suppressed;
+    /** The cause, or {@code null} if there is none */
+    private final DecodedThrowable cause;
+
+    /**
+     * Create an exception.
+     * @param   text
+     *          the text of the original exception, as from {@link Throwable#toString()}
+     * @param   message
+     *          the message of the original exception
+     * @param   frames
+     *          the stack frames of the original exception
+     * @param   suppressed
+     *          the suppressed exceptions
+     * @param   cause
+     *          the cause, or {@code null} if there is none
+     */
+    DecodedThrowable(String text, String message, String[] frames,
+            DecodedThrowable[] suppressed, DecodedThrowable cause)
+    {
+        super(message, null, false, false);
+        this.text = text;
+        this.frames = frames;
+        this.suppressed = suppressed;
+        this.cause = cause;
+    }
+
+    /**
+     * Get the stack frames of an exception as text.
+     * @param   throwable
+     *          the exception
+     * @return  the text of each stack frame
+     */
+    static String[] frames(Throwable throwable)
+    {
+        if (throwable instanceof DecodedThrowable)
+        {
+            return ((DecodedThrowable)throwable).frames;
+        }
+        StackTraceElement[] trace = throwable.getStackTrace();
+        String[] frames = new String[trace.length];
+        for (int f = 0; f < trace.length; f++)
+        {
+            frames[f] = trace[f].toString();
+        }
+        return frames;
+    }
+
+    @Override
+    public synchronized Throwable getCause()
+    {
+        return this.cause;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.text;
+    }
+
+    @Override
+    public void printStackTrace(PrintStream s)
+    {
+        PrintWriter writer = new PrintWriter(s);
+        this.printStackTrace(writer);
+        writer.flush();
+    }
+
+    @Override
+    public void printStackTrace(PrintWriter s)
+    {
+        Set<DecodedThrowable> printed = Collections.newSetFromMap(new IdentityHashMap<>());
+        printed.add(this);
+        s.println(this.text);
+        for (String frame : this.frames)
+        {
+            s.println("\tat " + frame);
+        }
+        for (DecodedThrowable se : this.suppressed)
+        {
+            se.printEnclosed(s, this.frames, "Suppressed: ", "\t", printed);
+        }
+        if (this.cause != null)
+        {
+            this.cause.printEnclosed(s, this.frames, "Caused by: ", "", printed);
+        }
+    }
+
+    /**
+     * Print the stack trace of a cause or suppressed exception.
+     * <br>
+     * Frames in common with the enclosing exception are counted rather than
+     * printed, as {@link Throwable} does.
+     */
+    private void printEnclosed(PrintWriter s, String[] enclosing,
+            String caption, String prefix, Set<DecodedThrowable> printed)
+    {
+        if (!printed.add(this))
+        {
+            return;
+        }
+        int m = this.frames.length - 1;
+        int n = enclosing.length - 1;
+        while (m >= 0 && n >= 0 && this.frames[m].equals(enclosing[n]))
+        {
+            m--;
+            n--;
+        }
+        int framesInCommon = this.frames.length - 1 - m;
+        s.println(prefix + caption + this.text);
+        for (int i = 0; i <= m; i++)
+        {
+            s.println(prefix + "\tat " + this.frames[i]);
+        }
+        if (framesInCommon != 0)
+        {
+            s.println(prefix + "\t... " + framesInCommon + " more");
+        }
+        for (DecodedThrowable se : this.suppressed)
+        {
+            se.printEnclosed(s, this.frames, "Suppressed: ", prefix + "\t", printed);
+        }
+        if (this.cause != null)
+        {
+            this.cause.printEnclosed(s, this.frames, "Caused by: ", prefix, printed);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * Durability.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-023    Durability of the messages written by a LogWriter
+ *================================================================================
+ */
+package lexa.core.logging;
+
+/**
+ * How durable a {@link LogWriter} makes each batch of messages it writes.
+ * <p>Every message waiting when a batch is written is committed together,
+ * so with an asynchronous writer one flush or sync covers the messages of
+ * all the threads logging in the meantime.
+ *
+ * @author william
+ * @since 2026-10
+ */
+enum Durability
+{
+    /** The log is flushed only as its {@link FlushPolicy} decides. */
+    NONE("none"),
+    /** The log is flushed to the operating system after every batch. */
+    FLUSH("flush"),
+    /** The log is flushed and forced to storage after every batch. */
+    FSYNC("fsync");
+
+    /** The name used in the configuration */
+    private final String configName;
+
+    private Durability(String configName)
+    {
+        this.configName = configName;
+    }
+
+    /**
+     * Get the durability for a configuration name.
+     * @param   configName
+     *          the name of the durability as used in the configuration
+     * @return  the matching durability, or {@code null} if there is no match.
+     */
+    static Durability fromConfig(String configName)
+    {
+        for (Durability durability : Durability.values())
+        {
+            if (durability.configName.equals(configName))
+            {
+                return durability;
+            }
+        }
+        return null;
+    }
+}
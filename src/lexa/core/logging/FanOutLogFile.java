@@ -0,0 +1,176 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * FanOutLogFile.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-020    Write each message to several filtered destinations
+ * 2026-10-18   WNW user-022    Total of the bytes written to the destinations
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A log file that writes each message to several destinations.
+ * <p>Each destination has its own {@link LogWriter}, and so its own log file,
+ * flush policy and, when asynchronous, its own queue and writer thread; a slow
+ * destination then only holds back its own queue.  The destination's writer
+ * takes a copy of each message from its own pool, so the message passed in
+ * can be recycled as soon as it has been handed to every destination.
+ * <p>Each destination has a filter of log levels in the same format as
+ * {@link LogLevels}, checked against the class name of the message, the part
+ * of the name after any {@code @}.  A rate in the filter is treated as
+ * {@code true}; rate limits are applied once for all destinations by the
+ * {@link Logger}.
+ * <p>The fan out is written by one thread at a time, that of the writer
+ * holding it.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class FanOutLogFile
+        implements LogFile
+{
+    /** The most names held in the cache of class names */
+    private static final int MAX_CLASS_NAMES = 4096;
+
+    /** The destinations, in the order they were added */
+    private final List<Destination> destinations;
+    /** The class name for each message name */
+    private final Map<String, String> classNames;
+
+    /**
+     * Create a fan out with no destinations.
+     */
+    FanOutLogFile()
+    {
+        this.destinations = new ArrayList<>();
+        this.classNames = new HashMap<>();
+    }
+
+    /**
+     * Add a destination.
+     * @param   writer
+     *          the writer for the destination
+     * @param   filter
+     *          the log levels for the destination
+     * @return  this fan out
+     */
+    FanOutLogFile add(LogWriter writer, LevelTable filter)
+    {
+        this.destinations.add(new Destination(writer, filter));
+        return this;
+    }
+
+    @Override
+    public void close()
+    {
+        for (Destination destination : this.destinations)
+        {
+            destination.writer.close();
+        }
+    }
+
+    @Override
+    public void flush()
+    {
+        // each destination flushes by its own policy
+    }
+
+    /**
+     * Get the number of bytes written to the destinations.
+     * @return  the total bytes written by the destinations that count them,
+     *          or {@code -1} if none of them do
+     */
+    @Override
+    public long getBytesWritten()
+    {
+        long total = -1;
+        for (Destination destination : this.destinations)
+        {
+            long bytes = destination.writer.getBytesWritten();
+            if (bytes >= 0)
+            {
+                total = Math.max(total, 0) + bytes;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void write(Message message)
+    {
+        String className = this.className(message.getName());
+        String type = message.getType();
+        for (Destination destination : this.destinations)
+        {
+            if (destination.filter.isLogged(className, type))
+            {
+                try
+                {
+                    destination.writer.write(message);
+                }
+                catch (RuntimeException ex)
+                {
+                    System.err.println("lexa.core.logging.FanOutLogFile.write()");
+                    ex.printStackTrace(System.err);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the class name from the name of a message.
+     * <br>
+     * The names are cached, so a repeated name does not allocate.
+     * @param   name
+     *          the name of the message, as {@code instance@className}
+     * @return  the class name
+     */
+    private String className(String name)
+    {
+        if (name == null)
+        {
+            return null;
+        }
+        String className = this.classNames.get(name);
+        if (className == null)
+        {
+            if (this.classNames.size() >= FanOutLogFile.MAX_CLASS_NAMES)
+            {
+                this.classNames.clear();
+            }
+            className = name.substring(name.lastIndexOf('@') + 1);
+            this.classNames.put(name, className);
+        }
+        return className;
+    }
+
+    /**
+     * A destination with its filter.
+     */
+    private static class Destination
+    {
+        /** The writer for the destination */
+        private final LogWriter writer;
+        /** The log levels for the destination */
+        private final LevelTable filter;
+
+        private Destination(LogWriter writer, LevelTable filter)
+        {
+            this.writer = writer;
+            this.filter = filter;
+        }
+    }
+}
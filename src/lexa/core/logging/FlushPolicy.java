@@ -0,0 +1,168 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * FlushPolicy.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-002    Decide when the log file is flushed
+ * 2026-10-18   WNW user-002    Time until the interval is due, for a timer to flush
+ *================================================================================
+ */
+package lexa.core.logging;
+
+/**
+ * Decides when a {@link LogWriter} flushes its {@link LogFile}.
+ * <p>The log is flushed once a number of messages have been written since the
+ * last flush, once a time has passed since the first unflushed message, or
+ * straight after an {@code ERROR} message.
+ * <p>The policy keeps track of the unflushed messages, so each writer needs its
+ * own instance; it is only used by the thread currently writing to the log.
+ * As a quiet log writes no more messages to notice the interval has passed,
+ * the writer also checks the policy from a timer, or while idle.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class FlushPolicy
+{
+    /** Number of messages written before a flush */
+    private final int messages;
+    /** Milliseconds after the first unflushed message before a flush; 0 for no limit */
+    private final long interval;
+    /** Flush after any {@code ERROR} message */
+    private final boolean onError;
+
+    /** Number of messages written since the last flush */
+    private int unflushed;
+    /** Time the first unflushed message was written */
+    private long firstUnflushed;
+    /** An unflushed {@code ERROR} message has been written */
+    private boolean error;
+
+    /**
+     * Create a policy that flushes after every message, as the writer has always done.
+     */
+    FlushPolicy()
+    {
+        this(1, 0, true);
+    }
+
+    /**
+     * Create a policy.
+     * @param   messages
+     *          the number of messages written before a flush.
+     * @param   interval
+     *          the milliseconds after the first unflushed message before a flush;
+     *          use {@code 0} for no time limit.
+     * @param   onError
+     *          {@code true} to flush after any {@code ERROR} message.
+     */
+    FlushPolicy(int messages, long interval, boolean onError)
+    {
+        if (messages < 1 || interval < 0)
+        {
+            throw new IllegalArgumentException("Invalid flush policy");
+        }
+        this.messages = messages;
+        this.interval = interval;
+        this.onError = onError;
+    }
+
+    /**
+     * Record a batch of messages written to the log.
+     * @param   batch
+     *          the messages written
+     * @param   count
+     *          the number of messages in the batch
+     */
+    void written(Message[] batch, int count)
+    {
+        if (count == 0)
+        {
+            return;
+        }
+        if (this.unflushed == 0)
+        {
+            this.firstUnflushed = System.currentTimeMillis();
+        }
+        this.unflushed += count;
+        if (this.onError && !this.error)
+        {
+            for (int m = 0; m < count; m++)
+            {
+                if ("ERROR".equals(batch[m].getType()))
+                {
+                    this.error = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Indicates if the log should be flushed now.
+     * @return  {@code true} if the log should be flushed,
+     *          otherwise {@code false}
+     */
+    boolean isDue()
+    {
+        if (this.unflushed == 0)
+        {
+            return false;
+        }
+        return this.error ||
+                this.unflushed >= this.messages ||
+                (this.interval > 0 &&
+                        System.currentTimeMillis() - this.firstUnflushed >= this.interval);
+    }
+
+    /**
+     * Get the time limit on unflushed messages.
+     * @return  the milliseconds after the first unflushed message before a flush,
+     *          or {@code 0} for no time limit
+     */
+    long getInterval()
+    {
+        return this.interval;
+    }
+
+    /**
+     * Get the time until the interval is due.
+     * @return  the milliseconds until the first unflushed message has waited
+     *          the interval, or the whole interval if there are none
+     */
+    long untilDue()
+    {
+        if (this.unflushed == 0)
+        {
+            return this.interval;
+        }
+        return Math.max(0,
+                this.firstUnflushed + this.interval - System.currentTimeMillis());
+    }
+
+    /**
+     * Indicates if there are messages written since the last flush.
+     * @return  {@code true} if there are unflushed messages,
+     *          otherwise {@code false}
+     */
+    boolean isPending()
+    {
+        return this.unflushed > 0;
+    }
+
+    /**
+     * Record that the log has been flushed.
+     */
+    void flushed()
+    {
+        this.unflushed = 0;
+        this.error = false;
+    }
+}
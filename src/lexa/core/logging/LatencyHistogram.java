@@ -0,0 +1,114 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * LatencyHistogram.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-022    Fixed size histogram of message latencies
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies in nanoseconds, in a fixed amount of memory.
+ * <p>Values are counted in buckets that double in width with each power of
+ * two, each split into {@value #SUB_BUCKETS} sub-buckets, so any value from
+ * zero to {@link Long#MAX_VALUE} is recorded to within about 6%.
+ * <p>Values are recorded by one thread at a time, the thread writing the log,
+ * so a count is updated with a plain read and an ordered write; other threads
+ * can copy the counts at any time without holding up the writer.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class LatencyHistogram
+{
+    /** The bits of a value below its highest bit used to choose the sub-bucket */
+    private static final int SUB_BITS = 4;
+    /** The number of sub-buckets for each power of two */
+    private static final int SUB_BUCKETS = 1 << LatencyHistogram.SUB_BITS;
+    /** The number of buckets */
+    static final int BUCKETS = (Long.SIZE - LatencyHistogram.SUB_BITS) * LatencyHistogram.SUB_BUCKETS;
+
+    /** The count of values in each bucket */
+    private final AtomicLongArray counts;
+
+    /**
+     * Create an empty histogram.
+     */
+    LatencyHistogram()
+    {
+        this.counts = new AtomicLongArray(LatencyHistogram.BUCKETS);
+    }
+
+    /**
+     * Record a value.
+     * <br>
+     * Only one thread at a time may record values.
+     * @param   nanos
+     *          the latency in nanoseconds; a negative value is recorded as zero
+     */
+    void record(long nanos)
+    {
+        int bucket = LatencyHistogram.bucket(Math.max(0, nanos));
+        this.counts.lazySet(bucket, this.counts.get(bucket) + 1);
+    }
+
+    /**
+     * Copy the counts.
+     * @return  the count of values in each bucket
+     */
+    long[] counts()
+    {
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        for (int b = 0; b < counts.length; b++)
+        {
+            counts[b] = this.counts.get(b);
+        }
+        return counts;
+    }
+
+    /**
+     * Get the bucket for a value.
+     * @param   value
+     *          the value, which is not negative
+     * @return  the bucket for the value
+     */
+    private static int bucket(long value)
+    {
+        if (value < LatencyHistogram.SUB_BUCKETS)
+        {
+            return (int)value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - LatencyHistogram.SUB_BITS;
+        return (shift + 1) * LatencyHistogram.SUB_BUCKETS +
+                (int)(value >>> shift) - LatencyHistogram.SUB_BUCKETS;
+    }
+
+    /**
+     * Get the highest value counted in a bucket.
+     * @param   bucket
+     *          the bucket
+     * @return  the highest value counted in the bucket
+     */
+    static long highestValue(int bucket)
+    {
+        if (bucket < LatencyHistogram.SUB_BUCKETS)
+        {
+            return bucket;
+        }
+        int shift = bucket / LatencyHistogram.SUB_BUCKETS - 1;
+        long lowest = (long)(LatencyHistogram.SUB_BUCKETS +
+                bucket % LatencyHistogram.SUB_BUCKETS) << shift;
+        return lowest + ((1L << shift) - 1);
+    }
+}
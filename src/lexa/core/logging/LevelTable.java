@@ -0,0 +1,199 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * LevelTable.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-004    Compiled log levels with a result cache
+ * 2026-10-18   WNW user-019    Rate limits for each name and type
+ * 2026-10-18   WNW user-019    Name each limiter for its summaries
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lexa.core.data.DataType;
+import lexa.core.data.DataItem;
+import lexa.core.data.DataSet;
+
+/**
+ * The log levels compiled from a log tree.
+ * <p>The tree is copied into hash maps when the table is built and never
+ * changed after that.  Each resolved decision is cached by name and type so
+ * that a repeated lookup is two hash lookups and does not allocate.
+ * <p>A level is either a boolean or a rate, the most messages logged each
+ * second.  A rate is resolved with the same wildcard fallbacks as a boolean,
+ * but each name and type has its own {@link RateLimiter}, so a rate set for
+ * the wildcard name limits each class separately.
+ * <p>A new table is built each time the levels change, which also discards
+ * the cached decisions and the limiters.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class LevelTable
+{
+    /** the rate for a level with no limit */
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+    /** the levels for each name and type as configured, as rates */
+    private final Map<String, Map<String, Integer>> levels;
+    /** the resolved decisions for each name and type */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Boolean>> cache;
+    /** indicates if any level is a rate */
+    private final boolean limited;
+    /** the limiters for each name and type with a rate */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Limit>> limiters;
+
+    /**
+     * Compile a log tree.
+     * @param   logTree
+     *          a tree of names, each containing a set of types with a boolean
+     *          or integer rate value, as held by {@link LogLevels}.
+     */
+    LevelTable(DataSet logTree)
+    {
+        this.levels = new HashMap<>();
+        boolean limited = false;
+        for (DataItem nameItem : logTree)
+        {
+            Map<String, Integer> types = new HashMap<>();
+            for (DataItem typeItem : nameItem.getDataSet())
+            {
+                int rate;
+                if (DataType.INTEGER.equals(typeItem.getType()))
+                {
+                    rate = typeItem.getInteger();
+                    limited |= rate > 0;
+                }
+                else
+                {
+                    rate = typeItem.getBoolean() ? LevelTable.UNLIMITED : 0;
+                }
+                types.put(typeItem.getKey(), rate);
+            }
+            this.levels.put(nameItem.getKey(), types);
+        }
+        this.cache = new ConcurrentHashMap<>();
+        this.limited = limited;
+        this.limiters = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Indicates if a message should be logged.
+     * @param   name
+     *          the name of the logging class
+     * @param   type
+     *          the type of the logging message.
+     * @return  {@code true} if the message should be logged,
+     *          otherwise {@code false}
+     */
+    boolean isLogged(String name, String type)
+    {
+        if (name == null || type == null)
+        {
+            return this.resolve(name, type) > 0;
+        }
+        ConcurrentHashMap<String, Boolean> types = this.cache.get(name);
+        if (types != null)
+        {
+            Boolean logged = types.get(type);
+            if (logged != null)
+            {
+                return logged;
+            }
+        }
+        else
+        {
+            types = this.cache.computeIfAbsent(name, n -> new ConcurrentHashMap<>());
+        }
+        boolean logged = this.resolve(name, type) > 0;
+        types.put(type, logged);
+        return logged;
+    }
+
+    /**
+     * Get the limiter for a name and type.
+     * <br>
+     * When no level is a rate this is a single field check.
+     * @param   name
+     *          the name of the logging class
+     * @param   type
+     *          the type of the logging message.
+     * @return  the limiter, or {@code null} if the messages are not limited
+     */
+    RateLimiter limiter(String name, String type)
+    {
+        if (!this.limited || name == null || type == null)
+        {
+            return null;
+        }
+        ConcurrentHashMap<String, Limit> types = this.limiters.get(name);
+        if (types == null)
+        {
+            types = this.limiters.computeIfAbsent(name, n -> new ConcurrentHashMap<>());
+        }
+        Limit limit = types.get(type);
+        if (limit == null)
+        {
+            limit = types.computeIfAbsent(type, t -> new Limit(name, t, this.resolve(name, t)));
+        }
+        return limit.limiter;
+    }
+
+    /**
+     * Resolve the level for a name and type using the wildcard fallbacks.
+     * <p>If no class is set up, returns the the type from the wildcard name.
+     * <p>If the class exists but the item is not set-up returns the type wildcard for the name.
+     * <p>If the type wildcard does not exists returns the name wildcard and type wildcard.
+     * @param   name
+     *          the name of the logging class
+     * @param   type
+     *          the type of the logging message.
+     * @return  the most messages logged each second; {@code 0} if the message
+     *          should not be logged
+     */
+    private int resolve(String name, String type)
+    {
+        Map<String, Integer> types = this.levels.get(name);
+        if (types == null)
+        {
+            return this.resolve(LogLevels.WILD_CARD, type);
+        }
+        Integer logged = types.get(type);
+        if (logged == null)
+        {
+            if (LogLevels.WILD_CARD.equals(type))
+            {
+                return this.resolve(LogLevels.WILD_CARD, LogLevels.WILD_CARD);
+            }
+            return this.resolve(name, LogLevels.WILD_CARD);
+        }
+        return logged;
+    }
+
+    /**
+     * The resolved limit for a name and type.
+     * <p>A name and type without a rate is also cached, with no limiter, so
+     * that it is not resolved again.
+     */
+    private static class Limit
+    {
+        /** the limiter, or {@code null} if the messages are not limited */
+        private final RateLimiter limiter;
+
+        private Limit(String name, String type, int rate)
+        {
+            this.limiter = rate > 0 && rate < LevelTable.UNLIMITED ?
+                    new RateLimiter(name, type, rate) :
+                    null;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * LogArchive.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-010    Archive code shared by the file based logs
+ * 2026-10-18   WNW user-012    Remove old archives when a log rolls
+ * 2026-10-18   WNW user-013    Compress archives in the background
+ * 2026-10-18   WNW user-013    Compress an archive only once the logs writing it close
+ * 2026-10-18   WNW user-012    Number archives made within the same time stamp
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lexa.core.data.formatting.DateTimeFormat;
+
+/**
+ * Archives log files.
+ * <p>An existing log file is moved into an {@code archive} directory next to
+ * it, with the time it was last modified added to its name; for example
+ * {@code app.log} is archived as {@code archive/app.20161018_093000_000.log}.
+ * If that archive already exists, as when a log rolls twice within the
+ * resolution of the file's time stamp, a sequence number is added to the
+ * time, as in {@code archive/app.20161018_093000_000_1.log}.
+ * <p>When a compressor is set the archive is then compressed in the background,
+ * becoming {@code archive/app.20161018_093000_000.log.gz}.  A log still open
+ * on the file when it is archived keeps writing to the archive, so each log
+ * records the file it opens with {@link #opened(File) opened} and
+ * {@link #closed(Handle) closed}, and an archive is only compressed once
+ * every log that had its file open has closed.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class LogArchive
+{
+    /** Pattern of the time stamp, and any sequence, added to the name of an archive */
+    private static final String TIME_STAMP_PATTERN = "(\\d{8}_\\d{6}_\\d{3})(?:_(\\d+))?";
+    /** Compresses the archives; {@code null} to leave them uncompressed */
+    private static volatile ArchiveCompressor compressor;
+    /** The logs open on each file */
+    private static final Map<File, List<Handle>> OPEN = new HashMap<>();
+    /** The archives waiting for the logs writing them to close */
+    private static final List<Pending> PENDING = new ArrayList<>();
+    /** Held while the open logs or pending archives change */
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private LogArchive()
+    {
+    }
+
+    /**
+     * Set the compressor used for new archives.
+     * <br>
+     * Any previous compressor finishes the archives already queued.
+     * @param   compressor
+     *          the compressor, or {@code null} to leave archives uncompressed
+     */
+    static void setCompressor(ArchiveCompressor compressor)
+    {
+        ArchiveCompressor previous = LogArchive.compressor;
+        LogArchive.compressor = compressor;
+        if (previous != null && previous != compressor)
+        {
+            previous.shutdown();
+        }
+    }
+
+    /**
+     * Get the directory holding the archives for a log file.
+     * @param   file
+     *          the log file
+     * @return  the archive directory
+     */
+    private static File directory(File file)
+    {
+        return new File(file.getParent() + "//archive//");
+    }
+
+    /**
+     * Prepare a file for logging.
+     * <br>
+     * If the file exists it is archived, otherwise its directory is created.
+     * @param   file
+     *          the file for logging
+     * @throws  IOException
+     *          when the file cannot be archived
+     */
+    static void prepare(File file)
+            throws IOException
+    {
+        if (!file.exists()) {
+            File parent = file.getParentFile();
+            // does the directory?
+            if (parent != null && !parent.exists())
+            {
+                parent.mkdirs();
+            }
+        }
+        else
+        {
+            // move to archive
+            String timeStamp = new DateTimeFormat("yyyyMMdd_HHmmss_SSS").toString(
+                    new Date(file.lastModified()));
+            File archive = LogArchive.archive(file, timeStamp);
+            archive.getParentFile().mkdirs();
+            Files.move(file.toPath(), archive.toPath());
+            if (LogArchive.compressor != null)
+            {
+                LogArchive.compress(file, archive);
+            }
+        }
+    }
+
+    /**
+     * Get the name of a new archive of a log file.
+     * <br>
+     * A sequence number is added to the time stamp until the name is used by
+     * neither an archive nor a compressed archive.
+     * @param   file
+     *          the log file
+     * @param   timeStamp
+     *          the time the file was last modified
+     * @return  the archive to move the file to
+     */
+    private static File archive(File file, String timeStamp)
+    {
+        File directory = LogArchive.directory(file);
+        String stamp = timeStamp;
+        for (int sequence = 1; ; sequence++)
+        {
+            File archive = new File(directory,
+                    file.getName().replaceFirst("\\.", "." + stamp + "."));
+            if (!archive.exists() &&
+                    !new File(archive.getPath() + ArchiveCompressor.EXTENSION).exists())
+            {
+                return archive;
+            }
+            stamp = timeStamp + "_" + sequence;
+        }
+    }
+
+    /**
+     * Compress an archive once the logs that had its file open have closed.
+     * @param   file
+     *          the log file that was archived
+     * @param   archive
+     *          the archive
+     */
+    private static void compress(File file, File archive)
+    {
+        LogArchive.LOCK.lock();
+        try
+        {
+            List<Handle> writers = LogArchive.OPEN.get(file.getAbsoluteFile());
+            if (writers == null)
+            {
+                LogArchive.compress(archive);
+            }
+            else
+            {
+                LogArchive.PENDING.add(new Pending(archive, writers));
+            }
+        }
+        finally
+        {
+            LogArchive.LOCK.unlock();
+        }
+    }
+
+    /**
+     * Queue an archive with the current compressor, if there still is one.
+     * @param   archive
+     *          the archive
+     */
+    private static void compress(File archive)
+    {
+        ArchiveCompressor archiveCompressor = LogArchive.compressor;
+        if (archiveCompressor != null)
+        {
+            archiveCompressor.compress(archive);
+        }
+    }
+
+    /**
+     * Record that a log has opened a file.
+     * @param   file
+     *          the file opened for logging
+     * @return  the handle to pass to {@link #closed(Handle) closed} once the
+     *          log has closed the file
+     */
+    static Handle opened(File file)
+    {
+        Handle handle = new Handle(file.getAbsoluteFile());
+        LogArchive.LOCK.lock();
+        try
+        {
+            LogArchive.OPEN.computeIfAbsent(handle.file, f -> new ArrayList<>()).add(handle);
+        }
+        finally
+        {
+            LogArchive.LOCK.unlock();
+        }
+        return handle;
+    }
+
+    /**
+     * Record that a log has closed a file.
+     * <br>
+     * Archives of the file that were waiting only for this log are compressed.
+     * @param   handle
+     *          the handle returned when the file was opened;
+     *          {@code null} if the file was never opened
+     */
+    static void closed(Handle handle)
+    {
+        if (handle == null)
+        {
+            return;
+        }
+        LogArchive.LOCK.lock();
+        try
+        {
+            List<Handle> writers = LogArchive.OPEN.get(handle.file);
+            if (writers != null)
+            {
+                writers.remove(handle);
+                if (writers.isEmpty())
+                {
+                    LogArchive.OPEN.remove(handle.file);
+                }
+            }
+            for (Iterator<Pending> p = LogArchive.PENDING.iterator(); p.hasNext();)
+            {
+                Pending pending = p.next();
+                pending.writers.remove(handle);
+                if (pending.writers.isEmpty())
+                {
+                    p.remove();
+                    LogArchive.compress(pending.archive);
+                }
+            }
+        }
+        finally
+        {
+            LogArchive.LOCK.unlock();
+        }
+    }
+
+    /**
+     * Delete the oldest archives of a log file.
+     * <br>
+     * Only archives named by {@link #prepare(File) prepare} are considered;
+     * a log file without an extension cannot be matched to its archives.
+     * Compressed and uncompressed archives count towards those kept.
+     * @param   file
+     *          the log file
+     * @param   keep
+     *          the number of archives to keep; {@code 0} for no limit
+     * @param   maxAge
+     *          the milliseconds since an archive was last modified before it
+     *          is deleted; {@code 0} for no limit
+     */
+    static void prune(File file, int keep, long maxAge)
+    {
+        if (keep == 0 && maxAge == 0)
+        {
+            return;
+        }
+        String name = file.getName();
+        int dot = name.indexOf('.');
+        if (dot < 0)
+        {
+            return;
+        }
+        Pattern pattern = Pattern.compile(
+                Pattern.quote(name.substring(0, dot + 1)) +
+                LogArchive.TIME_STAMP_PATTERN +
+                Pattern.quote(name.substring(dot)) +
+                "(?:" + Pattern.quote(ArchiveCompressor.EXTENSION) + ")?");
+        File[] archives = LogArchive.directory(file).listFiles((dir, archiveName) ->
+                pattern.matcher(archiveName).matches());
+        if (archives == null)
+        {
+            return;
+        }
+        // the time stamp and sequence in the name sort oldest first
+        Arrays.sort(archives, Comparator.comparing(
+                (File archive) -> LogArchive.order(pattern, archive.getName())));
+        int remove = keep == 0 ? 0 : archives.length - keep;
+        long oldest = System.currentTimeMillis() - maxAge;
+        for (int a = 0; a < archives.length; a++)
+        {
+            if (a >= remove && (maxAge == 0 || archives[a].lastModified() >= oldest))
+            {
+                continue;
+            }
+            if (!archives[a].delete())
+            {
+                System.err.println("lexa.core.logging.LogArchive.prune() cannot delete " + archives[a]);
+            }
+        }
+    }
+
+    /**
+     * Get the key that sorts an archive by when it was made.
+     * @param   pattern
+     *          the pattern matching the names of the archives
+     * @param   name
+     *          the name of the archive
+     * @return  the time stamp followed by the sequence, padded to sort in order
+     */
+    private static String order(Pattern pattern, String name)
+    {
+        Matcher matcher = pattern.matcher(name);
+        matcher.matches();
+        String sequence = matcher.group(2);
+        return String.format("%s_%010d", matcher.group(1),
+                sequence == null ? 0 : Long.parseLong(sequence));
+    }
+
+    /**
+     * A file opened by a log.
+     */
+    static class Handle
+    {
+        /** The file opened, as an absolute path */
+        private final File file;
+
+        private Handle(File file)
+        {
+            this.file = file;
+        }
+    }
+
+    /**
+     * An archive waiting for the logs writing it to close.
+     */
+    private static class Pending
+    {
+        private final File archive;
+        /** The logs that had the file open when it was archived */
+        private final List<Handle> writers;
+
+        private Pending(File archive, List<Handle> writers)
+        {
+            this.archive = archive;
+            this.writers = new ArrayList<>(writers);
+        }
+    }
+}
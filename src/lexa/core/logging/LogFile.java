@@ -12,6 +12,9 @@
  * ----------   --- ----------  --------------------------------------------------
  * 2016-09-14   WNW             Add support to output the log to a DataWriter
  * 2016-09-14   WNW             Update javadoc
+ * 2026-10-18   WNW user-002    Write messages in batches
+ * 2026-10-18   WNW user-022    Count of the bytes written
+ * 2026-10-18   WNW user-023    Sync the file to storage
  *================================================================================
  */
 package lexa.core.logging;
@@ -36,10 +39,48 @@ interface LogFile
      */
     void flush();
 
+    /**
+     * Flush the file and force all updates to storage
+     * <br>
+     * Once this returns, the messages written survive a crash of the machine.
+     * The default just flushes, for logs that are not written to a file.
+     */
+    default void sync()
+    {
+        this.flush();
+    }
+
     /**
      * Write s single message to the log
      * @param message the message to be logged
      */
     void write(Message message);
 
+    /**
+     * Write a batch of messages to the log
+     * <br>
+     * The default writes each message in turn; a flush is not implied.
+     * @param messages the messages to be logged
+     * @param count the number of messages in the batch
+     */
+    default void writeBatch(Message[] messages, int count)
+    {
+        for (int m = 0; m < count; m++)
+        {
+            this.write(messages[m]);
+        }
+    }
+
+    /**
+     * Get the number of bytes written to the log
+     * <br>
+     * This may be called by any thread, while the log is being written.
+     * The default does not count the bytes.
+     * @return the number of bytes written, or {@code -1} if they are not counted
+     */
+    default long getBytesWritten()
+    {
+        return -1;
+    }
+
 }
@@ -11,10 +11,17 @@
  * Date:        By: Ref:        Description:
  * ----------   --- ----------  --------------------------------------------------
  * 2016-09-13   WNW             Update in line with lxData-16-09
+ * 2026-10-18   WNW user-003    Publish the log tree as an immutable snapshot
+ * 2026-10-18   WNW user-004    Check levels against a compiled, cached table
+ * 2026-10-18   WNW user-005    Generation counter for loggers caching their levels
+ * 2026-10-18   WNW user-019    Rate limits as log levels
+ * 2026-10-18   WNW user-020    Merging of log trees shared with log destinations
+ * 2026-10-18   WNW user-025    Replace the monitor with a lock, logging outside it
  *================================================================================
  */
 package lexa.core.logging;
 
+import java.util.concurrent.locks.ReentrantLock;
 import lexa.core.data.DataItem;
 import lexa.core.data.DataSet;
 import lexa.core.data.ArrayDataSet;
@@ -26,15 +33,29 @@ import lexa.core.data.exception.DataException;
  * <p>Logging can be set up for each class and each message type.
  * <p>With no settings, logging is on for all messages.  In a production environment
  * the {@code DEBUG} type messages should be disabled.
+ * <p>The levels are held in a tree that is compiled into a {@link LevelTable};
+ * {@link #setLogging(DataSet) setLogging} builds a new tree and table and
+ * replaces the old ones, so {@link #isLogged(String, String) isLogged} needs
+ * no locks and a repeated check is a cached lookup.
+ * <p>A type can be given a rate, the most messages logged each second, in
+ * place of {@code true}; messages over the rate are suppressed and counted
+ * for each class by a {@link RateLimiter}.
  *
  * @author William
  * @since YYYY-MM
  */
 public class LogLevels {
 
-    private final static String WILD_CARD = "*";
-    /** a tree containing the log levels */
-    private final DataSet logTree;
+    final static String WILD_CARD = "*";
+    /** a tree containing the log levels; replaced, never changed, by setLogging */
+    private DataSet logTree;
+    /** the compiled log levels */
+    private volatile LevelTable levelTable;
+    /** incremented each time the log levels change */
+    private volatile int generation;
+    /** held while the log levels are changed; a lock rather than a monitor so
+        a virtual thread changing them does not pin its carrier */
+    private final ReentrantLock lock = new ReentrantLock();
 
     private Logger logger;
     /**
@@ -42,9 +63,8 @@ public class LogLevels {
      * <p>This sets up logging for all classes and all types to be on using the wildcard class and type.
      */
     LogLevels() {
-        this.logTree = new ArrayDataSet()
-				.put(LogLevels.WILD_CARD, new ArrayDataSet()
-						.put(LogLevels.WILD_CARD,true));
+        this.logTree = LogLevels.defaultTree();
+        this.levelTable = new LevelTable(this.logTree);
     }
 
     /**
@@ -61,18 +81,32 @@ public class LogLevels {
      *          otherwise {@code false}
      */
     public boolean isLogged (String name, String type) {
-        DataSet nameSet = this.logTree.getDataSet(name);
-        if (nameSet == null) {
-            return this.isLogged(LogLevels.WILD_CARD, type);
-        }
-        DataItem typeItem = nameSet.get(type);
-        if (typeItem == null) {
-            if (LogLevels.WILD_CARD.equals(type)) {
-                return this.isLogged(LogLevels.WILD_CARD, LogLevels.WILD_CARD);
-            }
-            return this.isLogged(name, LogLevels.WILD_CARD);
-        }
-        return typeItem.getBoolean();
+        return this.levelTable.isLogged(name, type);
+    }
+
+    /**
+     * Get the limiter for the messages of a name and type.
+     *
+     * @param   name
+     *          the name of the logging class
+     * @param   type
+     *          the type of the logging message.
+     * @return  the limiter, or {@code null} if the messages are not limited
+     */
+    RateLimiter limiter (String name, String type) {
+        return this.levelTable.limiter(name, type);
+    }
+
+    /**
+     * Get the generation of the log levels.
+     * <p>The generation changes each time the log levels are set, so a value
+     * cached from {@link #isLogged(String, String) isLogged} remains valid
+     * while the generation is unchanged.
+     *
+     * @return  the generation of the log levels
+     */
+    int generation() {
+        return this.generation;
     }
 
     /**
@@ -80,6 +114,8 @@ public class LogLevels {
      * <p>The structure of the config is names containing types as used in
      * {@link LogLevels#setLogging(java.lang.String, java.lang.String, boolean)
      * setLogging(String, String, boolean}}.
+     * <p>The changes are applied to a copy of the log tree which then replaces
+     * the current tree; if the configuration is invalid no changes are made.
      * @param   data
      *          The configuration for the logging.
      */
@@ -89,31 +125,21 @@ public class LogLevels {
 		{
 			return;
 		}
+        DataException error = null;
+        this.lock.lock();
         try {
-            for (DataItem di : data)
-            {
-                if (!di.getType().equals(DataType.DATA_SET))
-                {
-                    throw new DataException("invalid log setting format",di.getKey());
-                }
-                DataSet logLevels = this.logTree.getDataSet(di.getKey());
-                if (logLevels == null)
-                {
-                    logLevels = new ArrayDataSet();
-                    this.logTree.put(di.getKey(), logLevels);
-                }
-                DataSet newLevels = di.getDataSet();
-                for (DataItem ni : newLevels)
-                {
-                    if (!ni.getType().equals(DataType.BOOLEAN))
-                    {
-                        throw new DataException("invalid log setting format",di.getKey(),ni.getKey());
-                    }
-                    logLevels.put(ni);
-                }
-            }
+            DataSet logTree = LogLevels.merge(this.logTree, data);
+            this.logTree = logTree;
+            this.levelTable = new LevelTable(logTree);
+            this.generation++;
         } catch (DataException ex) {
-            this.logger().error("Cannot set logging", data, ex);
+            error = ex;
+        } finally {
+            this.lock.unlock();
+        }
+        // logged once the lock is released, as writing may block
+        if (error != null) {
+            this.logger().error("Cannot set logging", data, error);
         }
     }
 
@@ -134,6 +160,82 @@ public class LogLevels {
                         new ArrayDataSet().put(type, islogged)));
     }
 
+    /**
+     * Set a rate limit for a name and type.
+     * <p>The rate applies to each class separately, including when it is set
+     * for the wildcard name.
+     *
+     * @param   name
+     *          the name of the class; use {@code *} for the wildcard name
+     * @param   type
+     *          the type of the message; use {@code *} for the wildcard type
+     * @param   rate
+     *          the most messages logged each second;
+     *          {@code 0} for none to be logged
+     */
+    public void setLogging (String name, String type, int rate) {
+        this.setLogging(
+                new ArrayDataSet().put(name,
+                        new ArrayDataSet().put(type, rate)));
+    }
+
+
+    /**
+     * Get a log tree with logging on for all classes and all types.
+     *
+     * @return  a new tree with just the wildcard class and type
+     */
+    static DataSet defaultTree() {
+        return new ArrayDataSet()
+				.put(LogLevels.WILD_CARD, new ArrayDataSet()
+						.put(LogLevels.WILD_CARD,true));
+    }
+
+    /**
+     * Merge a group of names and types into a copy of a log tree.
+     *
+     * @param   logTree
+     *          the tree to copy; this is not changed
+     * @param   data
+     *          names containing types, as used by
+     *          {@link #setLogging(lexa.core.data.DataSet) setLogging(DataSet)}
+     * @return  the merged tree
+     * @throws  DataException
+     *          when the names and types are not in the expected format
+     */
+    static DataSet merge(DataSet logTree, DataSet data)
+            throws DataException
+    {
+        DataSet merged = new ArrayDataSet();
+        for (DataItem di : logTree)
+        {
+            merged.put(di.getKey(), new ArrayDataSet(di.getDataSet()));
+        }
+        for (DataItem di : data)
+        {
+            if (!di.getType().equals(DataType.DATA_SET))
+            {
+                throw new DataException("invalid log setting format",di.getKey());
+            }
+            DataSet logLevels = merged.getDataSet(di.getKey());
+            if (logLevels == null)
+            {
+                logLevels = new ArrayDataSet();
+                merged.put(di.getKey(), logLevels);
+            }
+            DataSet newLevels = di.getDataSet();
+            for (DataItem ni : newLevels)
+            {
+                if (!ni.getType().equals(DataType.BOOLEAN) &&
+                        !(ni.getType().equals(DataType.INTEGER) && ni.getInteger() >= 0))
+                {
+                    throw new DataException("invalid log setting format",di.getKey(),ni.getKey());
+                }
+                logLevels.put(ni);
+            }
+        }
+        return merged;
+    }
 
     private Logger logger()
     {
@@ -0,0 +1,136 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * LogMonitor.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-022    JMX view of the logging statistics
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Publishes the logging statistics through JMX.
+ * <p>The MBean is registered with the platform MBean server as
+ * {@value #OBJECT_NAME}.  Nothing is collected for it; each attribute
+ * takes a snapshot from {@link Logger#stats()} when it is read.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class LogMonitor
+        implements LogMonitorMBean
+{
+    /** The name of the MBean */
+    static final String OBJECT_NAME = "lexa.core.logging:type=Logger";
+
+    /**
+     * Register the MBean, unless it is already registered.
+     * @throws  JMException
+     *          when the MBean cannot be registered
+     */
+    static void register()
+            throws JMException
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(LogMonitor.OBJECT_NAME);
+        if (!server.isRegistered(name))
+        {
+            server.registerMBean(new StandardMBean(new LogMonitor(), LogMonitorMBean.class), name);
+        }
+    }
+
+    /**
+     * Unregister the MBean, if it is registered.
+     * @throws  JMException
+     *          when the MBean cannot be unregistered
+     */
+    static void unregister()
+            throws JMException
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(LogMonitor.OBJECT_NAME);
+        if (server.isRegistered(name))
+        {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Override
+    public long getAccepted()
+    {
+        return Logger.stats().getAccepted();
+    }
+
+    @Override
+    public long getFiltered()
+    {
+        return Logger.stats().getFiltered();
+    }
+
+    @Override
+    public long getDropped()
+    {
+        return Logger.stats().getDropped();
+    }
+
+    @Override
+    public long getWritten()
+    {
+        return Logger.stats().getWritten();
+    }
+
+    @Override
+    public long getBytesWritten()
+    {
+        return Logger.stats().getBytesWritten();
+    }
+
+    @Override
+    public long getFlushes()
+    {
+        return Logger.stats().getFlushes();
+    }
+
+    @Override
+    public int getQueueDepth()
+    {
+        return Logger.stats().getQueueDepth();
+    }
+
+    @Override
+    public long getLatencyMedian()
+    {
+        return Logger.stats().getLatency(50);
+    }
+
+    @Override
+    public long getLatency99()
+    {
+        return Logger.stats().getLatency(99);
+    }
+
+    @Override
+    public long getLatency999()
+    {
+        return Logger.stats().getLatency(99.9);
+    }
+
+    @Override
+    public long getLatencyMax()
+    {
+        return Logger.stats().getMaxLatency();
+    }
+}
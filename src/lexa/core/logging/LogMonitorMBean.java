@@ -0,0 +1,39 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * LogMonitorMBean.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-022    JMX view of the logging statistics
+ *================================================================================
+ */
+package lexa.core.logging;
+
+/**
+ * The logging statistics as a JMX MBean.
+ * <p>Each attribute is read from a new {@link LogStatistics} snapshot; see
+ * there for the meaning of each.  Latencies are in nanoseconds.
+ *
+ * @author william
+ * @since 2026-10
+ */
+public interface LogMonitorMBean
+{
+    long getAccepted();
+    long getFiltered();
+    long getDropped();
+    long getWritten();
+    long getBytesWritten();
+    long getFlushes();
+    int getQueueDepth();
+    long getLatencyMedian();
+    long getLatency99();
+    long getLatency999();
+    long getLatencyMax();
+}
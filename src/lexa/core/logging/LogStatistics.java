@@ -0,0 +1,185 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * LogStatistics.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-022    Snapshot of the logging statistics
+ *================================================================================
+ */
+package lexa.core.logging;
+
+/**
+ * A snapshot of the statistics of the logging.
+ * <p>The counts are those of the current log writer, since it was configured,
+ * except for the filtered count which is for all messages since the start.
+ * The snapshot is taken without stopping the logging, so the counts may be
+ * from slightly different moments.
+ * <p>Get a snapshot with {@link Logger#stats()}.
+ *
+ * @author william
+ * @since 2026-10
+ */
+public class LogStatistics
+{
+    private final long accepted;
+    private final long filtered;
+    private final long dropped;
+    private final long written;
+    private final long bytesWritten;
+    private final long flushes;
+    private final int queueDepth;
+    /** The count of latencies in each bucket of a {@link LatencyHistogram} */
+    private final long[] latencies;
+    /** The total of the latency counts */
+    private final long latencyCount;
+
+    LogStatistics(long accepted, long filtered, long dropped, long written,
+            long bytesWritten, long flushes, int queueDepth, long[] latencies)
+    {
+        this.accepted = accepted;
+        this.filtered = filtered;
+        this.dropped = dropped;
+        this.written = written;
+        this.bytesWritten = bytesWritten;
+        this.flushes = flushes;
+        this.queueDepth = queueDepth;
+        this.latencies = latencies;
+        long count = 0;
+        for (long c : latencies)
+        {
+            count += c;
+        }
+        this.latencyCount = count;
+    }
+
+    /**
+     * Get the number of messages accepted by the log writer.
+     * @return the number of messages accepted
+     */
+    public long getAccepted()
+    {
+        return this.accepted;
+    }
+
+    /**
+     * Get the number of messages not logged because of their log level or rate limit.
+     * @return the number of messages filtered
+     */
+    public long getFiltered()
+    {
+        return this.filtered;
+    }
+
+    /**
+     * Get the number of messages discarded because the queue was full.
+     * @return the number of messages dropped
+     */
+    public long getDropped()
+    {
+        return this.dropped;
+    }
+
+    /**
+     * Get the number of messages written to the log file.
+     * @return the number of messages written
+     */
+    public long getWritten()
+    {
+        return this.written;
+    }
+
+    /**
+     * Get the number of bytes written by the log file.
+     * @return  the number of bytes written,
+     *          or {@code -1} if the log file does not count them
+     */
+    public long getBytesWritten()
+    {
+        return this.bytesWritten;
+    }
+
+    /**
+     * Get the number of times the log file was flushed.
+     * @return the number of flushes
+     */
+    public long getFlushes()
+    {
+        return this.flushes;
+    }
+
+    /**
+     * Get the number of messages waiting to be written.
+     * @return  the number of messages in the queue,
+     *          always {@code 0} for a synchronous writer
+     */
+    public int getQueueDepth()
+    {
+        return this.queueDepth;
+    }
+
+    /**
+     * Get a percentile of the time from a message being logged to it being written.
+     * <br>
+     * The latency is accurate to within about 6%.
+     * @param   percentile
+     *          the percentile, from {@code 0} to {@code 100}
+     * @return  the latency in nanoseconds, or {@code 0} if no messages have been written
+     */
+    public long getLatency(double percentile)
+    {
+        if (this.latencyCount == 0)
+        {
+            return 0;
+        }
+        long rank = (long)Math.ceil(this.latencyCount *
+                Math.min(100, Math.max(0, percentile)) / 100);
+        long count = 0;
+        int last = 0;
+        for (int b = 0; b < this.latencies.length; b++)
+        {
+            if (this.latencies[b] == 0)
+            {
+                continue;
+            }
+            count += this.latencies[b];
+            last = b;
+            if (count >= rank)
+            {
+                break;
+            }
+        }
+        return LatencyHistogram.highestValue(last);
+    }
+
+    /**
+     * Get the longest time from a message being logged to it being written.
+     * @return  the latency in nanoseconds, or {@code 0} if no messages have been written
+     */
+    public long getMaxLatency()
+    {
+        return this.getLatency(100);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "accepted=" + this.accepted +
+                " filtered=" + this.filtered +
+                " dropped=" + this.dropped +
+                " written=" + this.written +
+                " bytesWritten=" + this.bytesWritten +
+                " flushes=" + this.flushes +
+                " queueDepth=" + this.queueDepth +
+                " latency50=" + this.getLatency(50) +
+                " latency99=" + this.getLatency(99) +
+                " latency999=" + this.getLatency(99.9) +
+                " latencyMax=" + this.getMaxLatency();
+    }
+}
@@ -13,16 +13,69 @@
  * 2016.02.10   WNW             Tidy up to make code more consistant with standards
  * 2016-09-14   WNW             Add support to output the log to a DataWriter
  * 2016-09-14   WNW             Update javadoc
+ * 2026-10-18   WNW user-001    Asynchronous writing through a lock-free queue
+ * 2026-10-18   WNW user-002    Write messages in batches and flush by policy
+ * 2026-10-18   WNW user-007    Reuse messages from a pool
+ * 2026-10-18   WNW user-020    Write copies of messages for a fan out
+ * 2026-10-18   WNW user-022    Statistics of the messages and their latency
+ * 2026-10-18   WNW user-023    Group commit by durability, with errors waiting to be durable
+ * 2026-10-18   WNW user-024    Buffer messages by thread and merge them in order
+ * 2026-10-18   WNW user-025    Write on the caller's thread under a lock, not a monitor
+ * 2026-10-18   WNW user-010    Correct the javadoc tags
+ * 2026-10-18   WNW user-010    Link the package's Logger, not java.util.logging
+ * 2026-10-18   WNW user-023    The writer thread never waits for itself
+ * 2026-10-18   WNW user-024    Small thread buffers, registered without copying and merged by a heap
+ * 2026-10-18   WNW user-002    Flush a synchronous writer on time from a timer thread
  *================================================================================
  */
 package lexa.core.logging;
 
 import java.util.*;
-import java.util.logging.Logger;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import lexa.core.data.*;
 
 /**
  * A single stream, shared by all the {@link Logger} instances for writing out log messages.
+ * <p>By default messages are written to the {@link LogFile} on the caller's thread.
+ * An asynchronous writer instead places each message on a bounded {@link RingBuffer}
+ * and a dedicated thread drains the queue into the log file, so the caller never
+ * waits on I/O; what happens when the queue is full is set by an {@link OverflowPolicy}.
+ * <p>Either way messages are handed to the log file in batches and the
+ * {@link FlushPolicy} decides when the log file is flushed; as a quiet log has
+ * no later message to notice the flush interval has passed, the writer thread
+ * checks it while idle and a synchronous writer with an interval has a timer
+ * thread to check it.  A {@link Durability} other than {@code NONE} also
+ * flushes, or syncs, after every batch; as the writer thread takes every
+ * message waiting, one sync commits the messages of all the threads logging
+ * meanwhile, as a database commits its log.  An asynchronous writer can make
+ * {@code ERROR} messages wait until their batch is committed, while other
+ * messages are still just queued.
+ * <p>With thread buffers each thread logging queues its messages, and reuses
+ * them, in a {@link ThreadBuffer} of its own rather than the shared queue and
+ * pool, so threads logging heavily do not contend with each other.  The writer
+ * thread merges the buffers by the time each message was logged, holding each
+ * message for a reorder window in case an older one is still to arrive from
+ * another thread; a buffer that is half full is merged without waiting.
+ * Each buffer is small, as it only needs to hold what its thread logs within
+ * the window.  A new buffer is handed to the writer thread through a queue,
+ * the writer keeps the buffers holding messages in a {@link MergeHeap}, so
+ * merging a message does not depend on the number of threads, and the buffer
+ * of a thread that has ended is discarded once it is empty.
+ * <p>A synchronous writer serialises the threads writing with a
+ * {@link ReentrantLock} rather than a monitor, and an asynchronous one takes
+ * no lock at all, so a virtual thread blocked writing the log does not pin
+ * its carrier thread.
+ * <p>Messages are taken from a pool and returned to it once written, so in
+ * the steady state logging a message does not allocate one.
+ * <p>The writer keeps {@link LogStatistics statistics} of the messages.  The
+ * counts updated by the threads logging are striped {@link LongAdder}s; those
+ * updated by the thread writing the log have a single writer and are just
+ * published, so nothing is contended and nothing is done until they are read.
  *
  * @author William
  * @since 2013-06
@@ -31,8 +84,67 @@ class LogWriter
 {
     /** the log file for writing messages */
     private final LogFile logFile;
-    /** Messages */
-    private final List<Message> messages;
+    /** Maximum number of messages handed to the log file at once */
+    private static final int BATCH_SIZE = 256;
+    /** Decides when the log file is flushed */
+    private final FlushPolicy flushPolicy;
+    /** Messages waiting to be written by a synchronous writer */
+    private Message[] pending;
+    /** Number of messages waiting to be written */
+    private int pendingCount;
+    /** Batch of messages being written */
+    private Message[] batch;
+    /** Set while a synchronous writer is writing a batch */
+    private boolean writing;
+    /** Held by the thread writing for a synchronous writer */
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Messages available for reuse */
+    private final RingBuffer<Message> pool;
+    /** Time the writer thread sleeps when there is nothing to write */
+    private static final long DRAIN_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    /** Time a producer sleeps while waiting for space in the queue */
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    /** Queue of messages for the writer thread; {@code null} when writing synchronously */
+    private final RingBuffer<Message> queue;
+    /** What to do when the queue is full */
+    private final OverflowPolicy overflow;
+    /** Thread draining the queue into the log file */
+    private final Thread drainer;
+    /** Thread flushing a synchronous writer on time; {@code null} without a flush interval */
+    private final Thread flusher;
+    /** Set while the writer, or flusher, thread should keep running */
+    private volatile boolean running;
+    /** Set while the writer thread is idle and may need waking */
+    private volatile boolean idle;
+    /** Messages accepted for writing */
+    private final LongAdder accepted = new LongAdder();
+    /** Messages discarded because the queue was full */
+    private final LongAdder dropped = new LongAdder();
+    /** Messages written to the log file; only updated by the thread writing */
+    private final AtomicLong written = new AtomicLong();
+    /** Flushes of the log file; only updated by the thread writing */
+    private final AtomicLong flushes = new AtomicLong();
+    /** Time from messages being logged to being written */
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    /** How durable each batch is made */
+    private final Durability durability;
+    /** Set if {@code ERROR} messages wait until they are committed */
+    private final boolean waitOnError;
+    /** The waiter for each thread logging a message that waits */
+    private static final ThreadLocal<Waiter> WAITER = ThreadLocal.withInitial(Waiter::new);
+    /** The buffers of the threads logging, only used by the writer thread;
+     *  {@code null} when using the shared queue */
+    private final List<ThreadBuffer> buffers;
+    /** Buffers of threads that have started logging, waiting for the writer thread */
+    private final Queue<ThreadBuffer> registered;
+    /** The buffers holding messages, by their oldest message; only used by the writer thread */
+    private final MergeHeap heap;
+    /** The buffer of each thread logging */
+    private final ThreadLocal<ThreadBuffer> buffer;
+    /** The number of messages each thread can buffer */
+    private final int bufferSize;
+    /** Time a buffered message is held to merge it in order */
+    private final long reorderNanos;
 
     /**
      * Create a new writer using the standard output {@link System#out}
@@ -44,17 +156,170 @@ class LogWriter
     }
 
     /**
-     * Create a new writer using the supplied stream.
+     * Create a new writer using the supplied log file.
      *
-     * @param   log
-     *          a stream to write out log messages.
+     * @param   logFile
+     *          the log file to write out log messages.
      */
     LogWriter (LogFile logFile) {
+        this(logFile, new FlushPolicy());
+    }
+
+    /**
+     * Create a new writer using the supplied stream and flush policy.
+     *
+     * @param   logFile
+     *          a stream to write out log messages.
+     * @param   flushPolicy
+     *          decides when the log file is flushed.
+     */
+    LogWriter (LogFile logFile, FlushPolicy flushPolicy) {
+        this(logFile, flushPolicy, Durability.NONE);
+    }
+
+    /**
+     * Create a new writer using the supplied stream, flush policy and durability.
+     * <br>
+     * Each message is committed before the call logging it returns.
+     *
+     * @param   logFile
+     *          a stream to write out log messages.
+     * @param   flushPolicy
+     *          decides when the log file is flushed.
+     * @param   durability
+     *          how durable each batch of messages is made.
+     */
+    LogWriter (LogFile logFile, FlushPolicy flushPolicy, Durability durability) {
         this.logFile = logFile;
-        this.messages = new LinkedList<>();
+        this.flushPolicy = flushPolicy;
+        this.durability = durability;
+        this.waitOnError = false;
+        this.buffers = null;
+        this.registered = null;
+        this.heap = null;
+        this.buffer = null;
+        this.bufferSize = 0;
+        this.reorderNanos = 0;
+        this.pending = new Message[LogWriter.BATCH_SIZE];
+        this.batch = new Message[LogWriter.BATCH_SIZE];
+        this.pool = LogWriter.pool(LogWriter.BATCH_SIZE);
+        this.queue = null;
+        this.overflow = null;
+        this.drainer = null;
+        if (flushPolicy.getInterval() > 0)
+        {
+            this.running = true;
+            this.flusher = new Thread(this::flushOnTime, "lxLogging-flush");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        }
+        else
+        {
+            this.flusher = null;
+        }
         this.writeMessage("LogWriter", "START", "Logging started", null, null);
     }
 
+    /**
+     * Create a new asynchronous writer using the supplied stream.
+     *
+     * @param   logFile
+     *          a stream to write out log messages.
+     * @param   flushPolicy
+     *          decides when the log file is flushed.
+     * @param   queueSize
+     *          the number of messages that can be waiting to be written.
+     * @param   overflow
+     *          the action to take when the queue is full.
+     */
+    LogWriter (LogFile logFile, FlushPolicy flushPolicy, int queueSize, OverflowPolicy overflow) {
+        this(logFile, flushPolicy, queueSize, overflow, Durability.NONE, false);
+    }
+
+    /**
+     * Create a new asynchronous writer using the supplied stream and durability.
+     *
+     * @param   logFile
+     *          a stream to write out log messages.
+     * @param   flushPolicy
+     *          decides when the log file is flushed.
+     * @param   queueSize
+     *          the number of messages that can be waiting to be written.
+     * @param   overflow
+     *          the action to take when the queue is full.
+     * @param   durability
+     *          how durable each batch of messages is made.
+     * @param   waitOnError
+     *          {@code true} for {@code ERROR} messages to wait until they are
+     *          committed, {@code false} for them to be queued like the others.
+     */
+    LogWriter (LogFile logFile, FlushPolicy flushPolicy, int queueSize, OverflowPolicy overflow,
+            Durability durability, boolean waitOnError) {
+        this(logFile, flushPolicy, queueSize, overflow, durability, waitOnError, 0, 0);
+    }
+
+    /**
+     * Create a new asynchronous writer, optionally with a buffer for each thread.
+     *
+     * @param   logFile
+     *          a stream to write out log messages.
+     * @param   flushPolicy
+     *          decides when the log file is flushed.
+     * @param   queueSize
+     *          the number of messages that can be waiting to be written
+     *          in the shared queue.
+     * @param   overflow
+     *          the action to take when the queue, or a thread's buffer, is full.
+     * @param   durability
+     *          how durable each batch of messages is made.
+     * @param   waitOnError
+     *          {@code true} for {@code ERROR} messages to wait until they are
+     *          committed, {@code false} for them to be queued like the others.
+     * @param   threadBufferSize
+     *          the number of messages each thread can buffer of its own,
+     *          or {@code 0} for all threads to share one queue.
+     * @param   reorderNanos
+     *          the time a buffered message is held to merge it in order.
+     */
+    LogWriter (LogFile logFile, FlushPolicy flushPolicy, int queueSize, OverflowPolicy overflow,
+            Durability durability, boolean waitOnError, int threadBufferSize, long reorderNanos) {
+        this.logFile = logFile;
+        this.flushPolicy = flushPolicy;
+        this.durability = durability;
+        this.waitOnError = waitOnError;
+        this.pending = null;
+        this.batch = new Message[LogWriter.BATCH_SIZE];
+        if (threadBufferSize > 0)
+        {
+            this.buffers = new ArrayList<>();
+            this.registered = new ConcurrentLinkedQueue<>();
+            this.heap = new MergeHeap();
+            this.buffer = ThreadLocal.withInitial(this::register);
+            this.bufferSize = threadBufferSize;
+            this.reorderNanos = reorderNanos;
+            this.queue = null;
+            this.pool = LogWriter.pool(LogWriter.BATCH_SIZE);
+        }
+        else
+        {
+            this.buffers = null;
+            this.registered = null;
+            this.heap = null;
+            this.buffer = null;
+            this.bufferSize = 0;
+            this.reorderNanos = 0;
+            this.queue = new RingBuffer<>(queueSize);
+            this.pool = LogWriter.pool(this.queue.capacity() + LogWriter.BATCH_SIZE);
+        }
+        this.overflow = overflow;
+        this.running = true;
+        this.drainer = new Thread(this::drain, "lxLogging-writer");
+        this.drainer.setDaemon(true);
+        this.flusher = null;
+        this.drainer.start();
+        this.message("LogWriter", "START", "Logging started", null, null);
+    }
+
     /**
      * Writes a message out to the log.
      * <br>
@@ -73,8 +338,10 @@ class LogWriter
      *          The text of the message
      * @param   data
      *          An associated data set, this will be formatted when printed
-     * @throwable
+     * @param   throwable
      *          Any {@link Throwable} to associated with the message.
+     * @param   args
+     *          Additional arguments to append to the message.
      */
     void message(String name,
             String type,
@@ -83,27 +350,567 @@ class LogWriter
             Throwable throwable,
             Object ... args)
     {
-        writeMessage(name, type, message, data, throwable, args);
+        this.accepted.increment();
+        if (this.drainer == null)
+        {
+            writeMessage(name, type, message, data, throwable, args);
+            return;
+        }
+        this.queue(this.obtain().set(name, type, message, data, throwable, args));
+    }
+
+    /**
+     * Writes a copy of a message already created.
+     * <br>
+     * The copy keeps the id and time stamp of the message and is taken from
+     * this writer's pool, so the message itself can be recycled by its own
+     * writer as soon as this returns.
+     * @param   message
+     *          the message to write
+     */
+    void write(Message message)
+    {
+        this.accepted.increment();
+        Message copy = this.obtain().copy(message);
+        if (this.drainer == null)
+        {
+            this.writeMessage(copy);
+            return;
+        }
+        this.queue(copy);
+    }
+
+    /**
+     * Queue a message for the writer thread, waiting until it is committed
+     * if it is an {@code ERROR} and errors wait.
+     * <br>
+     * A message logged by the writer thread itself, such as a log file
+     * reporting a failure, never waits, as only that thread could commit it.
+     * @param   message
+     *          the message to write
+     */
+    private void queue(Message message)
+    {
+        RingBuffer<Message> queue = this.buffers == null ?
+                this.queue :
+                this.buffer.get().messages;
+        if (!this.waitOnError || !"ERROR".equals(message.getType()) ||
+                Thread.currentThread() == this.drainer)
+        {
+            this.enqueue(queue, message);
+            return;
+        }
+        Waiter waiter = LogWriter.WAITER.get();
+        waiter.committed = false;
+        message.setWaiter(waiter);
+        this.enqueue(queue, message);
+        while (!waiter.committed && this.drainer.isAlive())
+        {
+            LockSupport.parkNanos(this, LogWriter.DRAIN_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Take a snapshot of the statistics.
+     * @param   filtered
+     *          the number of messages filtered before reaching the writer
+     * @return  the statistics of this writer
+     */
+    LogStatistics stats(long filtered)
+    {
+        return new LogStatistics(this.accepted.sum(),
+                filtered,
+                this.dropped.sum(),
+                this.written.get(),
+                this.logFile.getBytesWritten(),
+                this.flushes.get(),
+                this.queueDepth(),
+                this.latencies.counts());
+    }
+
+    /**
+     * Get an estimate of the number of messages waiting to be written.
+     * @return the number of messages queued or buffered
+     */
+    private int queueDepth()
+    {
+        if (this.buffers != null)
+        {
+            // the buffers are the writer thread's, so count what is not yet done with
+            long depth = this.accepted.sum() - this.dropped.sum() - this.written.get();
+            return (int)Math.max(0, Math.min(Integer.MAX_VALUE, depth));
+        }
+        return this.queue == null ? 0 : this.queue.size();
+    }
+
+    /**
+     * Create the buffer for the current thread.
+     * <br>
+     * This is the only time a thread logging changes state shared with others;
+     * the buffer is queued for the writer thread to add to its own list.
+     * @return  the buffer for the current thread
+     */
+    private ThreadBuffer register()
+    {
+        ThreadBuffer threadBuffer = new ThreadBuffer(this.bufferSize);
+        this.registered.offer(threadBuffer);
+        return threadBuffer;
+    }
+
+    /**
+     * Get the number of bytes written by the log file.
+     * @return the number of bytes written, or {@code -1} if they are not counted
+     */
+    long getBytesWritten()
+    {
+        return this.logFile.getBytesWritten();
     }
-    synchronized private void writeMessage(String name,
+
+    /**
+     * Create a pool of messages for reuse.
+     * @param   size
+     *          the number of messages in the pool
+     * @return  a pool filled with empty messages
+     */
+    private static RingBuffer<Message> pool(int size)
+    {
+        RingBuffer<Message> pool = new RingBuffer<>(size);
+        for (int m = 0; m < size; m++)
+        {
+            pool.offer(new Message());
+        }
+        return pool;
+    }
+
+    /**
+     * Get an empty message from the pool, or from the thread's own pool.
+     * <br>
+     * A new message is created if the pool is empty.
+     * @return an empty message
+     */
+    private Message obtain()
+    {
+        if (this.buffers != null)
+        {
+            RingBuffer<Message> threadPool = this.buffer.get().pool;
+            Message message = threadPool.poll();
+            return message != null ? message : new Message(threadPool);
+        }
+        Message message = this.pool.poll();
+        return message != null ? message : new Message();
+    }
+
+    /**
+     * Empty a message and return it to the pool it came from.
+     * @param   message
+     *          the message to recycle
+     */
+    private void recycle(Message message)
+    {
+        message.clear();
+        RingBuffer<Message> messagePool = message.getPool();
+        (messagePool != null ? messagePool : this.pool).offer(message);
+    }
+
+    /**
+     * Discard a message that could not be queued.
+     * @param   message
+     *          the message to discard
+     */
+    private void drop(Message message)
+    {
+        this.dropped.increment();
+        // a waiting thread is released, although its message is not written
+        LogWriter.release(message);
+        this.recycle(message);
+    }
+
+    /**
+     * Release the thread waiting for a message, if there is one.
+     * @param   message
+     *          the message that has been committed or discarded
+     */
+    private static void release(Message message)
+    {
+        Waiter waiter = message.getWaiter();
+        if (waiter != null)
+        {
+            waiter.committed = true;
+            LockSupport.unpark(waiter.thread);
+        }
+    }
+
+    /**
+     * Place a message on the queue for the writer thread.
+     * <br>
+     * If the queue is full the {@link OverflowPolicy} decides if the message
+     * waits for space or if a message is discarded.  A thread's buffer only
+     * wakes the writer once it is filling; until then it is merged in time.
+     * @param   queue
+     *          the shared queue or the thread's buffer
+     * @param   message
+     *          the message to write
+     */
+    private void enqueue(RingBuffer<Message> queue, Message message)
+    {
+        if (!queue.offer(message))
+        {
+            switch (this.overflow)
+            {
+                case DROP_NEWEST :
+                {
+                    this.drop(message);
+                    return;
+                }
+                case DROP_BELOW_ERROR :
+                {
+                    if (!"ERROR".equals(message.getType()))
+                    {
+                        this.drop(message);
+                        return;
+                    }
+                    this.awaitSpace(queue, message);
+                    break;
+                }
+                case DROP_OLDEST :
+                {
+                    do
+                    {
+                        Message oldest = queue.poll();
+                        if (oldest != null)
+                        {
+                            this.drop(oldest);
+                        }
+                    } while (!queue.offer(message));
+                    break;
+                }
+                default :
+                {
+                    this.awaitSpace(queue, message);
+                }
+            }
+        }
+        if (this.idle &&
+                (queue == this.queue || ThreadBuffer.isFilling(queue)))
+        {
+            LockSupport.unpark(this.drainer);
+        }
+    }
+
+    /**
+     * Wait until there is space in the queue for a message.
+     * <br>
+     * Once the writer is closed the message is discarded instead, as it is
+     * when the writer thread itself is logging, since only that thread could
+     * make the space.
+     * @param   queue
+     *          the shared queue or the thread's buffer
+     * @param   message
+     *          the message to write
+     */
+    private void awaitSpace(RingBuffer<Message> queue, Message message)
+    {
+        while (!queue.offer(message))
+        {
+            if (!this.running || Thread.currentThread() == this.drainer)
+            {
+                this.drop(message);
+                return;
+            }
+            LockSupport.unpark(this.drainer);
+            LockSupport.parkNanos(this, LogWriter.BLOCK_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Drain the queue, or merge the thread buffers, into the log file.
+     * <br>
+     * This is run by the writer thread until the writer is closed and the
+     * queue is empty.  Messages are taken from the queue in batches and the
+     * {@link FlushPolicy} is checked after each batch and while idle.
+     */
+    private void drain()
+    {
+        Message[] messages = this.batch;
+        long idleNanos = this.buffers == null ?
+                LogWriter.DRAIN_PARK_NANOS :
+                Math.max(1, Math.min(LogWriter.DRAIN_PARK_NANOS, this.reorderNanos));
+        while (this.running || !this.isDrained())
+        {
+            int count = this.buffers == null ?
+                    this.take(messages) :
+                    this.merge(messages);
+            if (count > 0)
+            {
+                this.writeBatch(messages, count);
+                continue;
+            }
+            if (this.flushPolicy.isDue())
+            {
+                this.flush();
+            }
+            if (this.buffers != null)
+            {
+                this.discardAbandoned();
+            }
+            this.idle = true;
+            if (this.running && (this.buffers != null || this.queue.isEmpty()))
+            {
+                LockSupport.parkNanos(this, idleNanos);
+            }
+            this.idle = false;
+        }
+        if (this.flushPolicy.isPending())
+        {
+            this.flush();
+        }
+    }
+
+    /**
+     * Take a batch of messages from the shared queue.
+     * @param   messages
+     *          the array to fill with messages
+     * @return  the number of messages taken
+     */
+    private int take(Message[] messages)
+    {
+        int count = 0;
+        Message message;
+        while (count < messages.length &&
+                (message = this.queue.poll()) != null)
+        {
+            messages[count++] = message;
+        }
+        return count;
+    }
+
+    /**
+     * Merge a batch of messages from the thread buffers in the order they were logged.
+     * <br>
+     * A message is only merged once it is older than the reorder window, so
+     * any older message from another thread has had time to be buffered.
+     * Once the writer is closing, or any buffer is filling, every message
+     * already buffered is merged without waiting.
+     * <br>
+     * Each buffer is checked once for new messages, then the messages are
+     * taken in order from the {@link MergeHeap}.
+     * @param   messages
+     *          the array to fill with messages
+     * @return  the number of messages merged
+     */
+    private int merge(Message[] messages)
+    {
+        ThreadBuffer registration;
+        while ((registration = this.registered.poll()) != null)
+        {
+            this.buffers.add(registration);
+        }
+        List<ThreadBuffer> threadBuffers = this.buffers;
+        boolean now = !this.running;
+        for (int b = 0; b < threadBuffers.size(); b++)
+        {
+            ThreadBuffer threadBuffer = threadBuffers.get(b);
+            now = now || threadBuffer.isFilling();
+            if (threadBuffer.fill())
+            {
+                this.heap.add(threadBuffer);
+            }
+        }
+        long due = System.nanoTime() - this.reorderNanos;
+        int count = 0;
+        ThreadBuffer first;
+        while (count < messages.length &&
+                (first = this.heap.first()) != null &&
+                (now || first.peek().getLogged() - due <= 0))
+        {
+            messages[count++] = this.heap.take();
+        }
+        return count;
+    }
+
+    /**
+     * Indicates if every message queued or buffered has been written.
+     * @return  {@code true} if nothing is waiting, otherwise {@code false}
+     */
+    private boolean isDrained()
+    {
+        if (this.buffers == null)
+        {
+            return this.queue.isEmpty();
+        }
+        if (!this.registered.isEmpty())
+        {
+            return false;
+        }
+        for (int b = 0; b < this.buffers.size(); b++)
+        {
+            if (this.buffers.get(b).size() > 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Discard the buffers of threads that have ended, once they are empty.
+     */
+    private void discardAbandoned()
+    {
+        this.buffers.removeIf(ThreadBuffer::isAbandoned);
+    }
+
+    /**
+     * Write a batch of messages to the log file and flush if the policy says so.
+     * <br>
+     * A failure is reported to {@link System#err} so that logging carries on.
+     * @param   messages
+     *          the messages to write; the array is cleared and the messages
+     *          returned to the pool once written.
+     * @param   count
+     *          the number of messages in the batch
+     */
+    private void writeBatch(Message[] messages, int count)
+    {
+        try
+        {
+            this.logFile.writeBatch(messages, count);
+        }
+        catch (RuntimeException ex)
+        {
+            System.err.println("lexa.core.logging.LogWriter.writeBatch()");
+            ex.printStackTrace(System.err);
+        }
+        this.flushPolicy.written(messages, count);
+        // commit the whole batch before any waiting thread is released
+        if (this.durability != Durability.NONE || this.flushPolicy.isDue())
+        {
+            this.flush();
+        }
+        // only the thread writing updates these
+        this.written.lazySet(this.written.get() + count);
+        long now = System.nanoTime();
+        for (int m = 0; m < count; m++)
+        {
+            this.latencies.record(now - messages[m].getLogged());
+            LogWriter.release(messages[m]);
+            this.recycle(messages[m]);
+            messages[m] = null;
+        }
+    }
+
+    /**
+     * Flush the log file, forcing it to storage if the durability is {@code FSYNC}.
+     */
+    private void flush()
+    {
+        if (this.durability == Durability.FSYNC)
+        {
+            this.logFile.sync();
+        }
+        else
+        {
+            this.logFile.flush();
+        }
+        this.flushPolicy.flushed();
+        this.flushes.lazySet(this.flushes.get() + 1);
+    }
+
+    /**
+     * Write a message on the caller's thread.
+     * <br>
+     * A message logged while a batch is being written, for example by the log
+     * file reporting an error, is added to the next batch by the same call.
+     */
+    private void writeMessage(String name,
             String type,
             String message,
             DataSet data,
             Throwable throwable,
             Object ... args)
     {
-        this.messages.add(new Message(name, type, message, data, throwable, args));
-        if (this.messages.size() > 1)
+        this.writeMessage(this.obtain().set(name, type, message, data, throwable, args));
+    }
+
+    /**
+     * Write a filled in message on the caller's thread.
+     * @param   message
+     *          the message to write, taken from the pool
+     */
+    private void writeMessage(Message message)
+    {
+        this.lock.lock();
+        try
         {
-            return;
+            if (this.pendingCount == this.pending.length)
+            {
+                this.pending = Arrays.copyOf(this.pending, this.pending.length * 2);
+            }
+            this.pending[this.pendingCount++] = message;
+            if (this.writing)
+            {
+                return;
+            }
+            this.writing = true;
+            this.writePending();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Write the pending messages, including any added while writing.
+     * <br>
+     * This is called holding the lock.
+     */
+    private void writePending()
+    {
+        try
+        {
+            while (this.pendingCount > 0)
+            {
+                Message[] messages = this.pending;
+                int count = this.pendingCount;
+                this.pending = this.batch;
+                this.pendingCount = 0;
+                this.batch = messages;
+                this.writeBatch(messages, count);
+            }
         }
-        
-        while (this.messages.size() >0)
+        finally
         {
-            this.logFile.write(this.messages.get(0));
-            this.messages.remove(0);
+            this.writing = false;
+        }
+    }
+
+    /**
+     * Flush a synchronous writer once its flush interval is due.
+     * <br>
+     * This is run by the flusher thread until the writer is closed, sleeping
+     * until the first unflushed message will have waited the interval.
+     */
+    private void flushOnTime()
+    {
+        while (this.running)
+        {
+            long wait;
+            this.lock.lock();
+            try
+            {
+                if (this.flushPolicy.isDue())
+                {
+                    this.flush();
+                }
+                wait = this.flushPolicy.untilDue();
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(Math.max(1, wait)));
         }
-        this.logFile.flush();
     }
 
     /**
@@ -111,6 +918,58 @@ class LogWriter
      */
     void close()
     {
+        if (this.drainer != null)
+        {
+            this.running = false;
+            LockSupport.unpark(this.drainer);
+            try
+            {
+                this.drainer.join();
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        else
+        {
+            if (this.flusher != null)
+            {
+                this.running = false;
+                LockSupport.unpark(this.flusher);
+                try
+                {
+                    this.flusher.join();
+                }
+                catch (InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            this.lock.lock();
+            try
+            {
+                if (this.flushPolicy.isPending())
+                {
+                    this.flush();
+                }
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+        }
         this.logFile.close();
     }
+
+    /**
+     * A thread waiting for its message to be committed.
+     */
+    static class Waiter
+    {
+        /** The waiting thread */
+        private final Thread thread = Thread.currentThread();
+        /** Set once the message is committed or discarded */
+        private volatile boolean committed;
+    }
 }
@@ -16,6 +16,34 @@
  * 2016-09-13   WNW             Update in line with lxData-16-09 changes to config
  * 2016-09-14   WNW             Add support to output the log to a DataWriter
  * 2016-09-14   WNW             Update javadoc
+ * 2026-10-18   WNW user-001    Configure an asynchronous log writer
+ * 2026-10-18   WNW user-002    Configure when the log is flushed
+ * 2026-10-18   WNW user-003    Log without taking any monitors
+ * 2026-10-18   WNW user-005    Cache the enabled types for each logger
+ * 2026-10-18   WNW user-006    Supplier based messages evaluated only when logged
+ * 2026-10-18   WNW user-007    Avoid an empty argument array for each message
+ * 2026-10-18   WNW user-008    Configure message ids by thread and sequence
+ * 2026-10-18   WNW user-010    Add the channel log type
+ * 2026-10-18   WNW user-011    Add the mmap log type
+ * 2026-10-18   WNW user-012    Configure rolling of file and dataSet logs
+ * 2026-10-18   WNW user-013    Configure compression and age of archives
+ * 2026-10-18   WNW user-014    Add the binary log type
+ * 2026-10-18   WNW user-015    Configure short form names and types
+ * 2026-10-18   WNW user-017    Configure limits on the data written as text
+ * 2026-10-18   WNW user-018    Configure references to repeated stack traces
+ * 2026-10-18   WNW user-019    Rate limit messages and summarise those suppressed
+ * 2026-10-18   WNW user-020    Configure several destinations, each with a filter
+ * 2026-10-18   WNW user-021    Log writer can be set within the package for benchmarks
+ * 2026-10-18   WNW user-022    Statistics of the logging, optionally through JMX
+ * 2026-10-18   WNW user-023    Configure the durability of the log
+ * 2026-10-18   WNW user-024    Configure a buffer for each thread logging
+ * 2026-10-18   WNW user-025    Replace the class monitor with a lock
+ * 2026-10-18   WNW user-006    Name the supplier methods apart so null is not ambiguous
+ * 2026-10-18   WNW user-024    Configure the size of each thread buffer apart from the queue
+ * 2026-10-18   WNW user-002    Configure the encoding of stdout and file logs
+ * 2026-10-18   WNW user-011    Pass the durability to mmap logs
+ * 2026-10-18   WNW user-023    Reject durability for dataSet logs, which cannot flush
+ * 2026-10-18   WNW user-019    Package access to the writer for the summaries of a burst
  *================================================================================
  */
 package lexa.core.logging;
@@ -23,6 +51,13 @@ package lexa.core.logging;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import lexa.core.data.DataItem;
 import lexa.core.data.DataSet;
 import lexa.core.data.config.ConfigDataSet;
 import lexa.core.data.exception.DataException;
@@ -33,6 +68,11 @@ import lexa.core.data.io.DataWriter;
  * <p>In normal use, each class instance would use an instance of the logger.
  * Each logger has a name and supports several standard messages with pre-defined types
  * as well as a generic message for application specific types.
+ * <p>Each message can also be given as a {@link Supplier} to the {@code Lazy}
+ * methods, such as {@link #infoLazy(Supplier)}; the supplier is only called
+ * when the message is going to be written, which avoids building the text
+ * and data for messages that are not logged.  The methods have their own
+ * names so that a {@code null} message is not ambiguous.
  *
  * @author William
  * @since 2013-04
@@ -46,11 +86,74 @@ public class Logger {
     private static final String INFO    = "INFO";
     /** Text for START log messages */
     private static final String START   = "START";
+    /** Arguments for messages without any, so that none are allocated */
+    private static final Object[] NO_ARGS = {};
 
     /** The {@link LogWriter} shared by all the {@link Logger} objects. */
-    private static LogWriter logWriter;
+    private static volatile LogWriter logWriter;
     /** The {@link LogLevels} shared by all the {@link Logger} objects. */
     private static final LogLevels LOG_LEVELS = new LogLevels();
+    /** Messages not logged because of their level or rate limit */
+    private static final LongAdder FILTERED = new LongAdder();
+    /** Held while the log writer is created or replaced; a lock rather than
+        the class monitor so a virtual thread doing so does not pin its carrier */
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    /* The items in the logging configuration */
+    private static final String TYPE = "type";
+    private static final String TYPE_STDOUT = "stdout";
+    private static final String TYPE_FILE = "file";
+    private static final String TYPE_CHANNEL = "channel";
+    private static final String TYPE_MMAP = "mmap";
+    private static final String TYPE_BINARY = "binary";
+    private static final String SEGMENT_SIZE = "segmentSize";
+    private static final String SHORT_NAMES = "shortNames";
+    private static final String ENCODING = "encoding";
+    private static final String DATA_LIMITS = "dataLimits";
+    private static final String DEPTH = "depth";
+    private static final String ELEMENTS = "elements";
+    private static final String TRACES = "traces";
+    private static final String CACHE = "cache";
+    private static final String REPEAT = "repeat";
+    private static final String ROLL = "roll";
+    private static final String SIZE = "size";
+    private static final String KEEP = "keep";
+    private static final String KEEP_DAYS = "keepDays";
+    private static final String COMPRESS = "compress";
+    private static final String THREADS = "threads";
+    private static final String LEVEL = "level";
+    private static final int DEFAULT_LEVEL = 6;
+    private static final String TYPE_DATA_SET = "dataSet";
+    private static final String FILE = "file";
+    private static final String LEVELS = "levels";
+    private static final String ASYNC = "async";
+    private static final String QUEUE_SIZE = "queueSize";
+    private static final String OVERFLOW = "overflow";
+    private static final String FLUSH = "flush";
+    private static final String MESSAGES = "messages";
+    private static final String INTERVAL = "interval";
+    private static final String ON_ERROR = "onError";
+    private static final String THREAD_IDS = "threadIds";
+    private static final String DESTINATIONS = "destinations";
+    private static final String JMX = "jmx";
+    private static final String DURABILITY = "durability";
+    private static final String MODE = "mode";
+    private static final String WAIT_ON_ERROR = "waitOnError";
+    private static final String THREAD_BUFFERS = "threadBuffers";
+    private static final String REORDER_WINDOW = "reorderWindow";
+    private static final String THREAD_BUFFER_SIZE = "threadBufferSize";
+    private static final int DEFAULT_QUEUE_SIZE = 8192;
+    private static final int DEFAULT_THREAD_BUFFER_SIZE = 256;
+    private static final int DEFAULT_REORDER_WINDOW = 10;
+
+    /**
+     * Get the current log writer.
+     *
+     * @return  the log writer, or {@code null} if the log is closed
+     */
+    static LogWriter writer() {
+        return Logger.logWriter;
+    }
 
     /**
      * Close the logger
@@ -64,6 +167,8 @@ public class Logger {
     /** The name to assign for all this instance's messages */
     private final String name;
     private final String className;
+    /** The standard types enabled for this logger */
+    private Levels levels;
 
     /**
      * Create a logger using a given name.
@@ -75,14 +180,123 @@ public class Logger {
      */
     public Logger (String className, String instance) {
 		if (Logger.logWriter == null) {
-			Logger.logWriter = new LogWriter();
+			Logger.LOCK.lock();
+			try {
+				if (Logger.logWriter == null) {
+					Logger.logWriter = new LogWriter();
+				}
+			} finally {
+				Logger.LOCK.unlock();
+			}
 		}
         this.className = className;
         this.name = (instance == null ?
                         "" :
                         instance + "@") +
 				this.className;
-        this.message(Logger.START,"Start logging",null, null);
+        this.levels = new Levels(Logger.LOG_LEVELS.generation() - 1, false, false, false, false);
+        this.message(Logger.START,"Start logging",null, null, Logger.NO_ARGS);
+    }
+
+    /**
+     * Indicates if messages of a type are written for this logger.
+     * <p>The standard types are cached by the logger and only checked again
+     * when the log levels change; other types are checked against the
+     * {@link LogLevels}.
+     *
+     * @param   type
+     *          the type of message
+     * @return  {@code true} if messages of the type are written,
+     *          otherwise {@code false}
+     */
+    public boolean isEnabled(String type) {
+        if (type != null) {
+            switch (type) {
+                case Logger.DEBUG : return this.levels().debug;
+                case Logger.ERROR : return this.levels().error;
+                case Logger.INFO :  return this.levels().info;
+                case Logger.START : return this.levels().start;
+            }
+        }
+        return Logger.LOG_LEVELS.isLogged(this.className, type);
+    }
+
+    /**
+     * Indicates if debug messages are written for this logger.
+     * <p>Use this to avoid building the data for a message that will not be written.
+     *
+     * @return  {@code true} if debug messages are written,
+     *          otherwise {@code false}
+     */
+    public boolean isDebugEnabled() {
+        return this.levels().debug;
+    }
+
+    /**
+     * Indicates if error messages are written for this logger.
+     *
+     * @return  {@code true} if error messages are written,
+     *          otherwise {@code false}
+     */
+    public boolean isErrorEnabled() {
+        return this.levels().error;
+    }
+
+    /**
+     * Indicates if information messages are written for this logger.
+     *
+     * @return  {@code true} if information messages are written,
+     *          otherwise {@code false}
+     */
+    public boolean isInfoEnabled() {
+        return this.levels().info;
+    }
+
+    /**
+     * Indicates if a message of an enabled type is within its rate limit.
+     * <p>When messages have been suppressed, a summary of the number suppressed
+     * is written at most once a second, whether or not this message is allowed.
+     * If no message follows a burst the {@link RateLimiter} writes its summary
+     * once the second has passed.
+     *
+     * @param   type
+     *          the type of message
+     * @return  {@code true} if the message is written,
+     *          {@code false} if it is suppressed
+     */
+    private boolean isAllowed(String type) {
+        RateLimiter limiter = Logger.LOG_LEVELS.limiter(this.className, type);
+        if (limiter == null) {
+            return true;
+        }
+        long now = System.nanoTime();
+        boolean allowed = limiter.tryAcquire(now);
+        long suppressed = limiter.takeSuppressed(now);
+        LogWriter writer = Logger.logWriter;
+        if (suppressed > 0 && writer != null) {
+            writer.message(this.name, type, suppressed + " messages suppressed",
+                    null, null, Logger.NO_ARGS);
+        }
+        return allowed;
+    }
+
+    /**
+     * Get the enabled standard types, checking them again if the log levels have changed.
+     *
+     * @return  the enabled standard types
+     */
+    private Levels levels() {
+        Levels current = this.levels;
+        int generation = Logger.LOG_LEVELS.generation();
+        if (current.generation != generation) {
+            current = new Levels(generation,
+                    Logger.LOG_LEVELS.isLogged(this.className, Logger.DEBUG),
+                    Logger.LOG_LEVELS.isLogged(this.className, Logger.ERROR),
+                    Logger.LOG_LEVELS.isLogged(this.className, Logger.INFO),
+                    Logger.LOG_LEVELS.isLogged(this.className, Logger.START));
+            this.levels = current;
+        }
+        return current;
     }
 
     /**
@@ -109,7 +323,7 @@ public class Logger {
      *          a {@link DataSet} to include in the message
      */
     public void debug(String message, DataSet data) {
-        this.message(Logger.DEBUG, message, data, null);
+        this.message(Logger.DEBUG, message, data, null, Logger.NO_ARGS);
     }
     /**
      * Write a debug message to the log.
@@ -125,6 +339,29 @@ public class Logger {
         this.message(Logger.DEBUG, message, data, null, args);
     }
 
+    /**
+     * Write a debug message to the log.
+     *
+     * @param   message
+     *          supplies the text for this message; only called if the message is logged
+     */
+    public void debugLazy(Supplier<String> message) {
+        this.messageLazy(Logger.DEBUG, message, null, null);
+    }
+
+    /**
+     * Write a debug message to the log.
+     *
+     * @param   message
+     *          supplies the text for this message; only called if the message is logged
+     * @param   data
+     *          supplies a {@link DataSet} to include in the message; only called
+     *          if the message is logged
+     */
+    public void debugLazy(Supplier<String> message, Supplier<DataSet> data) {
+        this.messageLazy(Logger.DEBUG, message, data, null);
+    }
+
     /**
      * Write an error message to the log.
      *
@@ -157,7 +394,7 @@ public class Logger {
      *          a {@link Throwable} exception to include in the message
      */
     public void error(String message, DataSet data, Throwable throwable) {
-        this.message(Logger.ERROR, message, data, throwable);
+        this.message(Logger.ERROR, message, data, throwable, Logger.NO_ARGS);
     }
     /**
      * Write an error message to the log.
@@ -175,6 +412,33 @@ public class Logger {
         this.message(Logger.ERROR, message, data, throwable, args);
     }
 
+    /**
+     * Write an error message to the log.
+     *
+     * @param   message
+     *          supplies the text for this message; only called if the message is logged
+     * @param   throwable
+     *          a {@link Throwable} exception to include in the message
+     */
+    public void errorLazy(Supplier<String> message, Throwable throwable) {
+        this.messageLazy(Logger.ERROR, message, null, throwable);
+    }
+
+    /**
+     * Write an error message to the log.
+     *
+     * @param   message
+     *          supplies the text for this message; only called if the message is logged
+     * @param   data
+     *          supplies a {@link DataSet} to include in the message; only called
+     *          if the message is logged
+     * @param   throwable
+     *          a {@link Throwable} exception to include in the message
+     */
+    public void errorLazy(Supplier<String> message, Supplier<DataSet> data, Throwable throwable) {
+        this.messageLazy(Logger.ERROR, message, data, throwable);
+    }
+
     /**
      * Write an information message to the log.
      *
@@ -195,7 +459,7 @@ public class Logger {
      *          a {@link DataSet} to include in the message
      */
     public void info(String message, DataSet data) {
-        this.message(Logger.INFO, message, data, null);
+        this.message(Logger.INFO, message, data, null, Logger.NO_ARGS);
     }
     /**
      * Write an information message to the log.
@@ -211,6 +475,29 @@ public class Logger {
         this.message(Logger.INFO, message, data, null,args);
     }
 
+    /**
+     * Write an information message to the log.
+     *
+     * @param   message
+     *          supplies the text for this message; only called if the message is logged
+     */
+    public void infoLazy(Supplier<String> message) {
+        this.messageLazy(Logger.INFO, message, null, null);
+    }
+
+    /**
+     * Write an information message to the log.
+     *
+     * @param   message
+     *          supplies the text for this message; only called if the message is logged
+     * @param   data
+     *          supplies a {@link DataSet} to include in the message; only called
+     *          if the message is logged
+     */
+    public void infoLazy(Supplier<String> message, Supplier<DataSet> data) {
+        this.messageLazy(Logger.INFO, message, data, null);
+    }
+
 //    /**
 //     * Write a message to the log.
 //     *
@@ -232,6 +519,11 @@ public class Logger {
 
     /**
      * Write a message to the log.
+     * <p>No locks are taken; the log levels and the log writer are both read
+     * from published snapshots, and the standard types are cached by the logger,
+     * so a message that is not logged costs a volatile read and a branch.
+     * <p>A type with a rate limit in the {@link LogLevels} is also checked
+     * against its {@link RateLimiter}.
      *
      * @param   type
      *          the type of message to be written
@@ -244,38 +536,196 @@ public class Logger {
      * @param   args
      *          additional arguments to append to the message.
      */
-    public synchronized final void message(String type, String message, DataSet data, Throwable throwable, Object ... args) {
-        if (!Logger.logLevels().isLogged(this.className, type)) {
+    public final void message(String type, String message, DataSet data, Throwable throwable, Object ... args) {
+        if (!this.isEnabled(type) || !this.isAllowed(type)) {
+            Logger.FILTERED.increment();
             return;
         }
-        Logger.logWriter.message(this.name,type, message, data, throwable,args);
+        LogWriter writer = Logger.logWriter;
+        if (writer != null) {
+            writer.message(this.name,type, message, data, throwable,args);
+        }
+    }
+
+    /**
+     * Write a message to the log.
+     * <p>The suppliers are only called once the message has passed the
+     * {@link LogLevels} check and any rate limit, so the text and data are not built for
+     * messages that are not logged.
+     *
+     * @param   type
+     *          the type of message to be written
+     * @param   message
+     *          supplies the text for this message
+     * @param   data
+     *          supplies a {@link DataSet} to include in the message;
+     *          may be {@code null} for no data
+     * @param   throwable
+     *          a {@link Throwable} exception to include in the message
+     */
+    public final void messageLazy(String type, Supplier<String> message, Supplier<DataSet> data, Throwable throwable) {
+        if (!this.isEnabled(type) || !this.isAllowed(type)) {
+            Logger.FILTERED.increment();
+            return;
+        }
+        LogWriter writer = Logger.logWriter;
+        if (writer != null) {
+            writer.message(this.name, type,
+                    message.get(),
+                    data == null ? null : data.get(),
+                    throwable, Logger.NO_ARGS);
+        }
     }
 
     /**
      * Configure the log writer being used by this logger.
      * The logging is configured using configuration data in the following
      * format:
-     * <pre>[type - &lt;Type of logging; takes the values {@code stdout|file|dataSet}, default is {@code stdout}&gt;]
+     * <pre>[type - &lt;Type of logging; takes the values {@code stdout|file|channel|mmap|binary|dataSet}, default is {@code stdout}&gt;]
      * [file - &lt;File for logging; not required for {@code stdout}, optional for {@code dataSet}&gt;]
+     * [segmentSize - &lt;Bytes mapped at a time for {@code mmap}, default is {@code 33554432}&gt;]
+     * [shortNames - &lt;Write names and types in short form, default is {@code false}&gt;]
+     * [encoding - &lt;Charset of the text for {@code stdout} and {@code file},
+     *             default is the platform's charset&gt;]
+     * [dataLimits {
+     *   [depth - &lt;Depth of nested data sets and arrays written; {@code 0} for no limit, default is {@code 0}&gt;]
+     *   [elements - &lt;Number of data values written; {@code 0} for no limit, default is {@code 0}&gt;]
+     * }]
+     * [traces {
+     *   [cache - &lt;Number of stack traces remembered, default is {@code 256}&gt;]
+     *   [repeat - &lt;Times a stack trace is seen between full traces, default is {@code 100}&gt;]
+     * }]
+     * [roll {
+     *   [size - &lt;Kilobytes written before the log rolls; {@code 0} for no limit, default is {@code 0}&gt;]
+     *   [interval - &lt;Minutes between rolls, counted from local midnight;
+     *                {@code 0} for none, default is {@code 0}&gt;]
+     *   [keep - &lt;Number of archives kept; {@code 0} to keep all, default is {@code 0}&gt;]
+     *   [keepDays - &lt;Days an archive is kept; {@code 0} to keep all, default is {@code 0}&gt;]
+     * }]
+     * [compress {
+     *   [threads - &lt;Number of archives compressed at the same time, default is {@code 1}&gt;]
+     *   [level - &lt;Compression level from {@code 1} (fastest) to {@code 9} (smallest), default is {@code 6}&gt;]
+     * }]
      * [levels {
      *   &lt;Log levels as expected by {@link LogLevels#setLogging(lexa.core.data.DataSet) setLogging(DataSet)}&gt;
+     * }]
+     * [async {
+     *   [queueSize - &lt;Number of messages waiting to be written, default is {@code 8192}&gt;]
+     *   [overflow - &lt;Action when the queue is full; takes the values
+     *                {@code block|dropOldest|dropNewest|dropBelowError}, default is {@code block}&gt;]
+     *   [threadBuffers - &lt;Each thread buffers messages of its own in place of the queue,
+     *                    default is {@code false}&gt;]
+     *   [threadBufferSize - &lt;Number of messages each thread can buffer, default is {@code 256}&gt;]
+     *   [reorderWindow - &lt;Milliseconds buffered messages are held to merge them
+     *                    in order, default is {@code 10}&gt;]
+     * }]
+     * [threadIds - &lt;Identify messages by thread id and sequence, default is {@code false}&gt;]
+     * [jmx - &lt;Publish the {@link #stats() statistics} as a JMX MBean, default is {@code false}&gt;]
+     * [destinations {
+     *   &lt;name&gt; {
+     *     &lt;The log file, {@code async} and {@code flush} items as above&gt;
+     *     [levels {
+     *       &lt;Filter in the same format as the log levels, default is all messages&gt;
+     *     }]
+     *   }
+     *   ...
+     * }]
+     * [flush {
+     *   [messages - &lt;Number of messages written before a flush, default is {@code 1}&gt;]
+     *   [interval - &lt;Milliseconds after the first unflushed message before a flush;
+     *                {@code 0} for no limit, default is {@code 0}&gt;]
+     *   [onError - &lt;Flush after any {@code ERROR} message, default is {@code true}&gt;]
+     * }]
+     * [durability {
+     *   mode - &lt;one of {@code none}, {@code flush} or {@code fsync};
+     *          only {@code none} for {@code dataSet}&gt;
+     *   [waitOnError - &lt;{@code ERROR} messages wait until committed,
+     *                 requires {@code async}, default is {@code false}&gt;]
      * }]</pre>
      * At least one of the items is required.
+     * <p>In {@code levels} a type can be given an integer rate in place of
+     * {@code true}; each class then logs at most that many messages of the type
+     * each second, and the number suppressed is written at most once a second
+     * as a message of the same type, including the count left at the end of a burst.
+     * <p>With {@code destinations} each message is written to every destination
+     * whose {@code levels} filter passes the message's class and type.  Each
+     * destination is configured like a single log, without {@code type} and the
+     * other log file items at the top level, and has its own writer; with its
+     * own {@code async} queue a slow destination does not hold back the others.
+     * The top level {@code levels}, {@code compress} and {@code threadIds}
+     * apply to all the destinations.
+     * <p>When {@code async} is present messages are written to the log by a
+     * dedicated thread, otherwise they are written by the thread logging them.
+     * With {@code threadBuffers} each thread queues its messages in a buffer of
+     * its own, sharing nothing with the other threads logging; the writer
+     * thread merges the buffers in the order the messages were logged once they
+     * are older than the {@code reorderWindow}, or as soon as a buffer is half
+     * full.  A message delayed by more than the window may be written out of order.
+     * The {@code threadBufferSize} only needs to hold what a thread logs within
+     * the window, and the {@code queueSize} is not used.
+     * <p>The {@code channel} type writes the same text as {@code file} through a
+     * {@link java.nio.channels.FileChannel}, encoding each message directly into
+     * a reused buffer rather than through a {@link PrintStream}.  The {@code mmap}
+     * type writes the same text into memory mapped segments of the file.
+     * The {@code binary} type writes a compact binary log, which is printed as
+     * text or data sets by {@link BinaryLogReader}.
+     * <p>The {@code file}, {@code channel}, {@code mmap} and {@code dataSet}
+     * types can write {@code shortNames}: each name and type is written as
+     * {@code #id=name} the first time it is used in a file and as {@code #id}
+     * after that.  The {@code binary} type always writes names this way.
+     * <p>The text types, {@code stdout}, {@code file}, {@code channel} and
+     * {@code mmap}, can limit the data in each message with {@code dataLimits};
+     * data beyond the depth is written as {@code [...]} and beyond the number
+     * of elements as {@code [truncated]}.
+     * <p>When {@code traces} is present, all types except {@code binary}
+     * fingerprint each exception by its class and stack frames.  The full trace
+     * is written the first time and then once every {@code repeat} times;
+     * otherwise just the fingerprint, the count and the exception's own text
+     * are written.
+     * <p>The {@code file} and {@code dataSet} types can {@code roll}: the log is
+     * archived, as happens to an existing log at start up, and a new log started.
+     * Without {@code flush} the log is flushed after every message.
+     * <p>A {@code durability} of {@code flush} or {@code fsync} commits every
+     * batch written, the latter forcing the log to storage; with {@code async}
+     * a batch holds all the messages queued meanwhile, so one commit serves many
+     * threads.  With {@code waitOnError} the thread logging an {@code ERROR}
+     * waits until it is committed, while other messages stay asynchronous.
+     * With {@code destinations} only each destination can have a durability.
+     * <p>With {@code jmx} the statistics are published as the MBean
+     * {@code lexa.core.logging:type=Logger}; they are read from a new
+     * snapshot each time.
+     * <p>When {@code compress} is present archived logs are compressed with gzip
+     * by low priority background threads; the archive is replaced by the same
+     * name ending {@code .gz}.  Without it archives are left uncompressed.
      * @param   config
      *          Configuration data as described above.
      * @throws  lexa.core.data.exception.DataException
      *          when there is an error in the configuration.
      */
-    public synchronized static void configure(ConfigDataSet config)
+    public static void configure(ConfigDataSet config)
+            throws DataException
+    {
+        Logger.LOCK.lock();
+        try
+        {
+            Logger.configureWriter(config);
+        }
+        finally
+        {
+            Logger.LOCK.unlock();
+        }
+    }
+
+    /**
+     * Configure the logging, holding the lock.
+     * @param   config
+     *          Configuration data as described for {@link #configure(ConfigDataSet)}.
+     * @throws  DataException
+     *          when there is an error in the configuration.
+     */
+    private static void configureWriter(ConfigDataSet config)
             throws DataException
     {
-        final String TYPE = "type";
-        final String TYPE_STDOUT = "stdout";
-        final String TYPE_FILE = "file";
-        final String TYPE_DATA_SET = "dataSet";
-        final String FILE = "file";
-        final String LEVELS = "levels";
-        
         if (config.isEmpty())
         {
             throw new DataException("Empty configuration", config.getPath());
@@ -286,60 +736,398 @@ public class Logger {
             Logger.logLevels().setLogging(config.getDataSet(LEVELS));
         }
 
-        String type = config.getString(TYPE);
-        try
+        if (config.contains(THREAD_IDS))
+        {
+            MessageIds.setThreadIds(config.getBoolean(THREAD_IDS));
+        }
+
+        ArchiveCompressor compressor = null;
+        if (config.contains(COMPRESS))
+        {
+            DataSet compress = config.getDataSet(COMPRESS);
+            int threads = compress.contains(THREADS) ?
+                    compress.getInteger(THREADS) :
+                    1;
+            int level = compress.contains(LEVEL) ?
+                    compress.getInteger(LEVEL) :
+                    DEFAULT_LEVEL;
+            if (threads < 1 || level < 1 || level > 9)
+            {
+                throw new DataException("Invalid compression", config.getPath(), COMPRESS);
+            }
+            compressor = new ArchiveCompressor(threads, level);
+        }
+        // set before the log file is created, as that may archive the old log
+        LogArchive.setCompressor(compressor);
+
+        if (config.contains(JMX))
         {
-            switch (type)
+            try
             {
-                case TYPE_STDOUT : 
+                if (config.getBoolean(JMX))
                 {
-                    if (config.contains(FILE))
-                    {
-                        throw new DataException("Invalid configuration item", config.getPath(), FILE);
-                    }
-                    Logger.setLogWriter(System.out);
-                    break;
+                    LogMonitor.register();
                 }
-                case TYPE_FILE : 
+                else
                 {
-                    if (!config.contains(FILE))
-                    {
-                        throw new DataException("Missing configuration option", config.getPath(), FILE);
-                    }
-                    Logger.setLogWriter(
-                            new File(config.getString(FILE))
-                    );
-                    break;
+                    LogMonitor.unregister();
                 }
-                case TYPE_DATA_SET :
+            }
+            catch (JMException ex)
+            {
+                new Logger("Logger","static").error("Cannot publish the statistics", null, ex);
+            }
+        }
+
+        if (config.contains(DESTINATIONS) && config.contains(TYPE))
+        {
+            throw new DataException("Invalid configuration item", config.getPath(), TYPE);
+        }
+        Logger.setLogWriter(Logger.createLogWriter(config));
+        config.close();
+        // write a message that this has been logged:
+        Logger.logWriter.message("Logger", "CONFIGURE", "Logging configuration updated",config,null);
+    }
+
+    /**
+     * Create a log writer from its configuration.
+     * <br>
+     * The {@code async} and {@code flush} items are read before the log file
+     * is created, so an invalid writer does not archive the current log.
+     * @param   config
+     *          the configuration of the writer and its log file, or of a
+     *          writer and its {@code destinations}
+     * @return  the log writer
+     * @throws  DataException
+     *          when there is an error in the configuration.
+     */
+    private static LogWriter createLogWriter(ConfigDataSet config)
+            throws DataException
+    {
+        int queueSize = 0;
+        OverflowPolicy overflow = null;
+        int threadBufferSize = 0;
+        int reorderWindow = 0;
+        if (config.contains(ASYNC))
+        {
+            DataSet async = config.getDataSet(ASYNC);
+            queueSize = async.contains(QUEUE_SIZE) ?
+                    async.getInteger(QUEUE_SIZE) :
+                    DEFAULT_QUEUE_SIZE;
+            if (queueSize < 1)
+            {
+                throw new DataException("Invalid queue size", config.getPath(), ASYNC, QUEUE_SIZE);
+            }
+            overflow = async.contains(OVERFLOW) ?
+                    OverflowPolicy.fromConfig(async.getString(OVERFLOW)) :
+                    OverflowPolicy.BLOCK;
+            if (overflow == null)
+            {
+                throw new DataException("Invalid overflow policy", config.getPath(), ASYNC, OVERFLOW);
+            }
+            if (async.contains(THREAD_BUFFERS) && async.getBoolean(THREAD_BUFFERS))
+            {
+                threadBufferSize = async.contains(THREAD_BUFFER_SIZE) ?
+                        async.getInteger(THREAD_BUFFER_SIZE) :
+                        DEFAULT_THREAD_BUFFER_SIZE;
+                if (threadBufferSize < 1)
                 {
-                    Logger.setLogWriter(
-                            new DataSetLogFile(
-                                    new File(config.getString(FILE))
-                            )
-                    );
-                    break;
+                    throw new DataException("Invalid thread buffer size", config.getPath(), ASYNC, THREAD_BUFFER_SIZE);
                 }
-                default :
+            }
+            reorderWindow = async.contains(REORDER_WINDOW) ?
+                    async.getInteger(REORDER_WINDOW) :
+                    DEFAULT_REORDER_WINDOW;
+            if (reorderWindow < 0)
+            {
+                throw new DataException("Invalid reorder window", config.getPath(), ASYNC, REORDER_WINDOW);
+            }
+        }
+
+        FlushPolicy flushPolicy = new FlushPolicy();
+        if (config.contains(FLUSH))
+        {
+            DataSet flush = config.getDataSet(FLUSH);
+            int messages = flush.contains(MESSAGES) ?
+                    flush.getInteger(MESSAGES) :
+                    1;
+            int interval = flush.contains(INTERVAL) ?
+                    flush.getInteger(INTERVAL) :
+                    0;
+            boolean onError = flush.contains(ON_ERROR) ?
+                    flush.getBoolean(ON_ERROR) :
+                    true;
+            if (messages < 1 || interval < 0)
+            {
+                throw new DataException("Invalid flush policy", config.getPath(), FLUSH);
+            }
+            flushPolicy = new FlushPolicy(messages, interval, onError);
+        }
+
+        Durability durability = Durability.NONE;
+        boolean waitOnError = false;
+        if (config.contains(DURABILITY))
+        {
+            DataSet durable = config.getDataSet(DURABILITY);
+            durability = Durability.fromConfig(durable.getString(MODE));
+            if (durability == null)
+            {
+                throw new DataException("Invalid durability", config.getPath(), DURABILITY, MODE);
+            }
+            waitOnError = durable.contains(WAIT_ON_ERROR) &&
+                    durable.getBoolean(WAIT_ON_ERROR);
+            // a fan out commits nothing itself; each destination has its own
+            if (config.contains(DESTINATIONS))
+            {
+                throw new DataException("Invalid durability", config.getPath(), DURABILITY);
+            }
+            // a data writer cannot be flushed, so a dataSet log cannot commit
+            if (durability != Durability.NONE && config.contains(TYPE) &&
+                    TYPE_DATA_SET.equals(config.getString(TYPE)))
+            {
+                throw new DataException("Invalid durability", config.getPath(), DURABILITY, MODE);
+            }
+            if (waitOnError && (overflow == null || durability == Durability.NONE))
+            {
+                throw new DataException("Invalid durability", config.getPath(), DURABILITY, WAIT_ON_ERROR);
+            }
+        }
+
+        LogFile logFile = config.contains(DESTINATIONS) ?
+                Logger.createFanOut(config.getDataSet(DESTINATIONS)) :
+                Logger.createLogFile(config, durability);
+        return overflow == null ?
+                new LogWriter(logFile, flushPolicy, durability) :
+                new LogWriter(logFile, flushPolicy, queueSize, overflow, durability, waitOnError,
+                        threadBufferSize, TimeUnit.MILLISECONDS.toNanos(reorderWindow));
+    }
+
+    /**
+     * Create a fan out to the configured destinations.
+     * @param   config
+     *          the destinations, each configured as a log writer with an
+     *          optional {@code levels} filter
+     * @return  the fan out
+     * @throws  DataException
+     *          when there is an error in the configuration.
+     */
+    private static LogFile createFanOut(ConfigDataSet config)
+            throws DataException
+    {
+        if (config.isEmpty())
+        {
+            throw new DataException("Empty configuration", config.getPath());
+        }
+        FanOutLogFile fanOut = new FanOutLogFile();
+        try
+        {
+            for (DataItem item : config)
+            {
+                ConfigDataSet destination = config.getDataSet(item.getKey());
+                if (destination.contains(DESTINATIONS))
                 {
-                    throw new DataException("Invalid logging type", config.getPath(), TYPE);
+                    throw new DataException("Invalid configuration item", destination.getPath(), DESTINATIONS);
                 }
+                LevelTable filter = new LevelTable(destination.contains(LEVELS) ?
+                        LogLevels.merge(LogLevels.defaultTree(), destination.getDataSet(LEVELS)) :
+                        LogLevels.defaultTree());
+                fanOut.add(Logger.createLogWriter(destination), filter);
+                destination.close();
             }
         }
-        catch (FileNotFoundException ex)
+        catch (DataException ex)
         {
-            Logger.logWriter.message(
-                    "Logger",
-                    "ERROR",
-                    "Failed to set log destination",
-                    config, ex);
-            throw new DataException(
-                    "Failed to set log destination",
-                    config.getPath(), FILE, ex);
+            // stop the writers already started for the valid destinations
+            fanOut.close();
+            throw ex;
+        }
+        return fanOut;
+    }
+
+    /**
+     * Create a log file from its configuration.
+     * @param   config
+     *          the configuration of the log file
+     * @param   durability
+     *          how durable each batch of messages is made
+     * @return  the log file
+     * @throws  DataException
+     *          when there is an error in the configuration.
+     */
+    private static LogFile createLogFile(ConfigDataSet config, Durability durability)
+            throws DataException
+    {
+        RollingPolicy rolling = null;
+        if (config.contains(ROLL))
+        {
+            DataSet roll = config.getDataSet(ROLL);
+            int size = roll.contains(SIZE) ?
+                    roll.getInteger(SIZE) :
+                    0;
+            int interval = roll.contains(INTERVAL) ?
+                    roll.getInteger(INTERVAL) :
+                    0;
+            int keep = roll.contains(KEEP) ?
+                    roll.getInteger(KEEP) :
+                    0;
+            int keepDays = roll.contains(KEEP_DAYS) ?
+                    roll.getInteger(KEEP_DAYS) :
+                    0;
+            if (size < 0 || interval < 0 || keep < 0 || keepDays < 0)
+            {
+                throw new DataException("Invalid rolling policy", config.getPath(), ROLL);
+            }
+            rolling = new RollingPolicy(size * 1024L, interval, keep, keepDays);
+        }
+
+        String type = config.getString(TYPE);
+        if (rolling != null && !TYPE_FILE.equals(type) && !TYPE_DATA_SET.equals(type))
+        {
+            throw new DataException("Invalid configuration item", config.getPath(), ROLL);
+        }
+        boolean shortNames = config.contains(SHORT_NAMES) ?
+                config.getBoolean(SHORT_NAMES) :
+                false;
+        if (config.contains(SHORT_NAMES) &&
+                (TYPE_STDOUT.equals(type) || TYPE_BINARY.equals(type)))
+        {
+            throw new DataException("Invalid configuration item", config.getPath(), SHORT_NAMES);
+        }
+        Charset charset = Charset.defaultCharset();
+        if (config.contains(ENCODING))
+        {
+            if (!TYPE_STDOUT.equals(type) && !TYPE_FILE.equals(type))
+            {
+                throw new DataException("Invalid configuration item", config.getPath(), ENCODING);
+            }
+            try
+            {
+                charset = Charset.forName(config.getString(ENCODING));
+            }
+            catch (IllegalArgumentException ex)
+            {
+                throw new DataException("Invalid encoding", config.getPath(), ENCODING);
+            }
+        }
+        int maxDepth = 0;
+        int maxElements = 0;
+        if (config.contains(DATA_LIMITS))
+        {
+            if (TYPE_DATA_SET.equals(type) || TYPE_BINARY.equals(type))
+            {
+                throw new DataException("Invalid configuration item", config.getPath(), DATA_LIMITS);
+            }
+            DataSet dataLimits = config.getDataSet(DATA_LIMITS);
+            maxDepth = dataLimits.contains(DEPTH) ?
+                    dataLimits.getInteger(DEPTH) :
+                    0;
+            maxElements = dataLimits.contains(ELEMENTS) ?
+                    dataLimits.getInteger(ELEMENTS) :
+                    0;
+            if (maxDepth < 0 || maxElements < 0)
+            {
+                throw new DataException("Invalid data limits", config.getPath(), DATA_LIMITS);
+            }
+        }
+        ThrowableCache throwableCache = null;
+        if (config.contains(TRACES))
+        {
+            if (TYPE_BINARY.equals(type))
+            {
+                throw new DataException("Invalid configuration item", config.getPath(), TRACES);
+            }
+            DataSet traces = config.getDataSet(TRACES);
+            int cache = traces.contains(CACHE) ?
+                    traces.getInteger(CACHE) :
+                    256;
+            int repeat = traces.contains(REPEAT) ?
+                    traces.getInteger(REPEAT) :
+                    100;
+            if (cache < 1 || repeat < 1)
+            {
+                throw new DataException("Invalid trace cache", config.getPath(), TRACES);
+            }
+            throwableCache = new ThrowableCache(cache, repeat);
+        }
+        switch (type)
+        {
+            case TYPE_STDOUT : 
+            {
+                if (config.contains(FILE))
+                {
+                    throw new DataException("Invalid configuration item", config.getPath(), FILE);
+                }
+                return new StreamLogFile(System.out,
+                        new TextRenderer(false, maxDepth, maxElements, throwableCache),
+                        charset);
+            }
+            case TYPE_FILE : 
+            {
+                if (!config.contains(FILE))
+                {
+                    throw new DataException("Missing configuration option", config.getPath(), FILE);
+                }
+                return new StreamLogFile(
+                        new File(config.getString(FILE)),
+                        rolling,
+                        new TextRenderer(shortNames, maxDepth, maxElements, throwableCache),
+                        charset
+                );
+            }
+            case TYPE_CHANNEL :
+            {
+                if (!config.contains(FILE))
+                {
+                    throw new DataException("Missing configuration option", config.getPath(), FILE);
+                }
+                return new ChannelLogFile(
+                        new File(config.getString(FILE)),
+                        new TextRenderer(shortNames, maxDepth, maxElements, throwableCache)
+                );
+            }
+            case TYPE_MMAP :
+            {
+                if (!config.contains(FILE))
+                {
+                    throw new DataException("Missing configuration option", config.getPath(), FILE);
+                }
+                int segmentSize = config.contains(SEGMENT_SIZE) ?
+                        config.getInteger(SEGMENT_SIZE) :
+                        MappedLogFile.DEFAULT_SEGMENT_SIZE;
+                if (segmentSize < 1024)
+                {
+                    throw new DataException("Invalid segment size", config.getPath(), SEGMENT_SIZE);
+                }
+                return new MappedLogFile(
+                        new File(config.getString(FILE)),
+                        segmentSize,
+                        new TextRenderer(shortNames, maxDepth, maxElements, throwableCache),
+                        durability
+                );
+            }
+            case TYPE_BINARY :
+            {
+                if (!config.contains(FILE))
+                {
+                    throw new DataException("Missing configuration option", config.getPath(), FILE);
+                }
+                return new BinaryLogFile(
+                        new File(config.getString(FILE))
+                );
+            }
+            case TYPE_DATA_SET :
+            {
+                return new DataSetLogFile(
+                        new File(config.getString(FILE)),
+                        rolling,
+                        new DataSetRenderer(shortNames, throwableCache)
+                );
+            }
+            default :
+            {
+                throw new DataException("Invalid logging type", config.getPath(), TYPE);
+            }
         }
-        config.close();
-        // write a message that this has been logged:
-        Logger.logWriter.message("Logger", "CONFIGURE", "Logging configuration updated",config,null);
     }
 
     /**
@@ -347,7 +1135,7 @@ public class Logger {
      * @param file  file for writing the log
      * @throws FileNotFoundException when the file cannot be found
      */
-    public synchronized static void setLogWriter(File file) throws FileNotFoundException {
+    public static void setLogWriter(File file) throws FileNotFoundException {
 		setLogWriter(new StreamLogFile(file));
 	}
     /**
@@ -356,7 +1144,7 @@ public class Logger {
      * @param   printStream
      *          a stream to write out log messages.
      */
-    public synchronized static void setLogWriter(PrintStream printStream) {
+    public static void setLogWriter(PrintStream printStream) {
         Logger.setLogWriter(
                 new StreamLogFile(printStream)
         );
@@ -366,25 +1154,81 @@ public class Logger {
      * Set the log writer to use a data writer
      * @param dataWriter the data writer for the log
      */
-    public synchronized static void setLogWriter(DataWriter dataWriter)
+    public static void setLogWriter(DataWriter dataWriter)
     {
         Logger.setLogWriter(
                 new DataSetLogFile(dataWriter)
         );
     }
 
-    private synchronized static void setLogWriter(LogFile log)
+    private static void setLogWriter(LogFile log)
     {
-        if (Logger.logWriter != null) {
-            Logger.close();
+        Logger.setLogWriter(new LogWriter(log));
+    }
+
+    /**
+     * Replace the log writer, closing the current one.
+     * <br>
+     * This is package-private so that the benchmarks can set up each kind of writer.
+     * @param writer the new log writer
+     */
+    static void setLogWriter(LogWriter writer)
+    {
+        Logger.LOCK.lock();
+        try {
+            if (Logger.logWriter != null) {
+                Logger.close();
+            }
+            Logger.logWriter = writer;
+        } finally {
+            Logger.LOCK.unlock();
         }
-        Logger.logWriter = new LogWriter(log);
     }
+    /**
+     * Get a snapshot of the statistics of the logging.
+     * <p>The statistics are counted all the time at little cost; the snapshot
+     * is only built when this is called.
+     * @return  the statistics of the current log writer
+     */
+    public static LogStatistics stats() {
+        LogWriter writer = Logger.logWriter;
+        if (writer == null) {
+            return new LogStatistics(0, Logger.FILTERED.sum(), 0, 0, 0, 0, 0,
+                    new long[LatencyHistogram.BUCKETS]);
+        }
+        return writer.stats(Logger.FILTERED.sum());
+    }
+
     /**
      * Get the logging levels.
      * @return  the logging levels
      */
-    public static synchronized LogLevels logLevels() {
+    public static LogLevels logLevels() {
         return Logger.LOG_LEVELS;
     }
+
+    /**
+     * The standard types enabled for a logger at a generation of the log levels.
+     * <p>Instances are immutable, so they can be shared between threads without locks.
+     */
+    private static class Levels {
+        /** The generation of the log levels used */
+        private final int generation;
+        /** {@code DEBUG} messages are written */
+        private final boolean debug;
+        /** {@code ERROR} messages are written */
+        private final boolean error;
+        /** {@code INFO} messages are written */
+        private final boolean info;
+        /** {@code START} messages are written */
+        private final boolean start;
+
+        private Levels(int generation, boolean debug, boolean error, boolean info, boolean start) {
+            this.generation = generation;
+            this.debug = debug;
+            this.error = error;
+            this.info = info;
+            this.start = start;
+        }
+    }
 }
@@ -0,0 +1,303 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * MappedLogFile.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-011    Text log written to a memory mapped file
+ * 2026-10-18   WNW user-015    Define short names again in each segment
+ * 2026-10-18   WNW user-017    Take the renderer from the caller
+ * 2026-10-18   WNW user-022    Count the bytes written
+ * 2026-10-18   WNW user-023    Sync the mapped segment to storage
+ * 2026-10-18   WNW user-013    Hold back compressing the archive until the file is closed
+ * 2026-10-18   WNW user-011    Define short names once per file and force each full segment
+ * 2026-10-18   WNW user-011    Force full segments only for durability, unmap before truncating
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A text log file written to memory mapped segments of the file.
+ * <p>The file is mapped a segment at a time; messages are encoded straight into
+ * the mapped memory so writing a message needs no system call.  When a segment
+ * is full the next segment of the file is mapped, and when the log is closed
+ * the unused end of the last segment is truncated.
+ * <p>Each segment is unmapped as soon as it is left, rather than when the
+ * buffer is collected, so the file can be truncated on platforms that do not
+ * allow a mapped file to change size.  With a {@link Durability} other than
+ * {@code NONE} a full segment is forced to storage before it is unmapped.
+ * <p>The file content is the same as a {@link StreamLogFile} writing to the
+ * same file, encoded as UTF-8.  With short names, the names are defined once
+ * for the file, the first time each is used.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class MappedLogFile
+        implements LogFile
+{
+    /** Default size of each mapped segment */
+    static final int DEFAULT_SEGMENT_SIZE = 32 * 1024 * 1024;
+
+    /** The channel for the file */
+    private final FileChannel channel;
+    /** The file as opened for {@link LogArchive} */
+    private final LogArchive.Handle handle;
+    /** The size of each mapped segment */
+    private final int segmentSize;
+    /** Renders the messages as text */
+    private final TextRenderer renderer;
+    /** Set if each full segment is forced to storage before it is unmapped */
+    private final boolean forceSegments;
+    /** The segment currently being written */
+    private MappedByteBuffer segment;
+    /** The position of the current segment in the file */
+    private long segmentStart;
+    /** Bytes written to the file */
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    /**
+     * Create a log file.
+     * <br>
+     * If the named file exists, it is archived.
+     * @param file the file for writing the log
+     * @param segmentSize the size of each mapped segment in bytes
+     */
+    MappedLogFile(File file, int segmentSize)
+    {
+        this(file, segmentSize, new TextRenderer());
+    }
+
+    /**
+     * Create a log file.
+     * <br>
+     * If the named file exists, it is archived.
+     * @param file the file for writing the log
+     * @param segmentSize the size of each mapped segment in bytes
+     * @param renderer renders the messages as text
+     */
+    MappedLogFile(File file, int segmentSize, TextRenderer renderer)
+    {
+        this(file, segmentSize, renderer, Durability.NONE);
+    }
+
+    /**
+     * Create a log file.
+     * <br>
+     * If the named file exists, it is archived.
+     * @param file the file for writing the log
+     * @param segmentSize the size of each mapped segment in bytes
+     * @param renderer renders the messages as text
+     * @param durability how durable each batch of messages is made
+     * @throws UncheckedIOException when the file cannot be archived or mapped
+     */
+    MappedLogFile(File file, int segmentSize, TextRenderer renderer, Durability durability)
+    {
+		if (file == null) {
+            throw new IllegalArgumentException("Null log stream");
+		}
+        if (segmentSize < 1024)
+        {
+            throw new IllegalArgumentException("Invalid segment size " + segmentSize);
+        }
+        this.segmentSize = segmentSize;
+        this.renderer = renderer;
+        this.forceSegments = durability != Durability.NONE;
+        // short names are defined afresh in each file
+        this.renderer.reset();
+        FileChannel channel = null;
+        LogArchive.Handle handle = null;
+        try
+        {
+            LogArchive.prepare(file);
+            channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            handle = LogArchive.opened(file);
+            this.segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        catch (IOException ex)
+        {
+            // a log without its file would fail on every message
+            if (channel != null)
+            {
+                try
+                {
+                    channel.close();
+                }
+                catch (IOException closeEx)
+                {
+                    ex.addSuppressed(closeEx);
+                }
+            }
+            LogArchive.closed(handle);
+            throw new UncheckedIOException("Cannot open log file " + file, ex);
+        }
+        this.channel = channel;
+        this.handle = handle;
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            long size = this.segmentStart + this.segment.position();
+            MappedLogFile.unmap(this.segment);
+            this.segment = null;
+            this.channel.truncate(size);
+            this.channel.close();
+        }
+        catch (IOException ex)
+        {
+            ex.printStackTrace(System.err);
+        }
+        LogArchive.closed(this.handle);
+    }
+
+    @Override
+    public void flush()
+    {
+        // the mapped memory is already visible to readers of the file
+    }
+
+    @Override
+    public void write(Message message)
+    {
+        CharSequence text;
+        try
+        {
+            text = this.renderer.render(message);
+        }
+        catch (Exception ex)
+        {
+            StringWriter error = new StringWriter();
+            error.write("\n**ERROR IN LOGGING**\n");
+            ex.printStackTrace(new PrintWriter(error));
+            error.write("****\n\n");
+            text = error.getBuffer();
+        }
+        long start = this.segmentStart + this.segment.position();
+        int index = Utf8Encoder.encode(text, 0, this.segment);
+        while (index < text.length())
+        {
+            this.nextSegment();
+            index = Utf8Encoder.encode(text, index, this.segment);
+        }
+        // only this thread writes the count
+        this.bytesWritten.lazySet(this.bytesWritten.get() +
+                this.segmentStart + this.segment.position() - start);
+    }
+
+    @Override
+    public void sync()
+    {
+        this.segment.force();
+        try
+        {
+            // the segments already passed were forced when they were left
+            this.channel.force(false);
+        }
+        catch (IOException ex)
+        {
+            System.err.println("lexa.core.logging.MappedLogFile.sync()");
+            ex.printStackTrace(System.err);
+        }
+    }
+
+    @Override
+    public long getBytesWritten()
+    {
+        return this.bytesWritten.get();
+    }
+
+    /**
+     * Map the next segment of the file, starting where the current segment ends.
+     * <br>
+     * When the log is durable the full segment is forced to storage first, as
+     * forcing the channel is not specified to cover memory that is no longer
+     * mapped; otherwise it is left to the operating system to write back.
+     */
+    private void nextSegment()
+    {
+        MappedByteBuffer full = this.segment;
+        if (this.forceSegments)
+        {
+            full.force();
+        }
+        this.segmentStart += full.position();
+        try
+        {
+            this.segment = this.channel.map(FileChannel.MapMode.READ_WRITE,
+                    this.segmentStart, this.segmentSize);
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+        MappedLogFile.unmap(full);
+    }
+
+    /**
+     * Unmap a segment now rather than when it is collected.
+     * <br>
+     * There is no public API for this, so the JDK's cleaner for the buffer is
+     * called through reflection; if that is not possible the segment is left
+     * to be collected.  The segment must not be used afterwards.
+     * @param   segment
+     *          the segment to unmap
+     */
+    private static void unmap(MappedByteBuffer segment)
+    {
+        try
+        {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner;
+            try
+            {
+                // Java 9 and later
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            }
+            catch (NoSuchMethodException ex)
+            {
+                // Java 8
+                Method cleanerMethod = segment.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(segment);
+                if (cleaner != null)
+                {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+                return;
+            }
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), segment);
+        }
+        catch (ReflectiveOperationException | RuntimeException ex)
+        {
+            // left to the garbage collector
+        }
+    }
+}
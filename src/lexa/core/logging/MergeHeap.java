@@ -0,0 +1,134 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * MergeHeap.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-024    Heap of thread buffers ordered by their oldest message
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of the thread buffers holding messages, ordered by the
+ * oldest message in each buffer.
+ * <p>The buffer with the oldest message is always at the top, so merging a
+ * message costs a sift of the heap rather than a scan of every buffer.  A
+ * buffer is in the heap exactly while it holds a head message; the head of a
+ * buffer does not change until it is taken, so the order of the heap holds.
+ * <p>The heap is only used by the writer thread.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class MergeHeap
+{
+    /** the buffers in heap order */
+    private ThreadBuffer[] buffers;
+    /** the number of buffers in the heap */
+    private int size;
+
+    /**
+     * Create an empty heap.
+     */
+    MergeHeap()
+    {
+        this.buffers = new ThreadBuffer[16];
+        this.size = 0;
+    }
+
+    /**
+     * Add a buffer that holds a head message.
+     * @param   buffer
+     *          the buffer to add
+     */
+    void add(ThreadBuffer buffer)
+    {
+        if (this.size == this.buffers.length)
+        {
+            this.buffers = Arrays.copyOf(this.buffers, this.size * 2);
+        }
+        int index = this.size++;
+        Message head = buffer.peek();
+        while (index > 0)
+        {
+            int parent = (index - 1) >>> 1;
+            if (!ThreadBuffer.isBefore(head, this.buffers[parent].peek()))
+            {
+                break;
+            }
+            this.buffers[index] = this.buffers[parent];
+            index = parent;
+        }
+        this.buffers[index] = buffer;
+    }
+
+    /**
+     * Get the buffer holding the oldest message.
+     * @return  the buffer at the top of the heap, or {@code null} if it is empty
+     */
+    ThreadBuffer first()
+    {
+        return this.size == 0 ? null : this.buffers[0];
+    }
+
+    /**
+     * Take the oldest message from the buffer at the top of the heap.
+     * <br>
+     * The buffer is moved down by its next message, or removed if it has no more.
+     * @return  the oldest message
+     */
+    Message take()
+    {
+        ThreadBuffer first = this.buffers[0];
+        Message message = first.take();
+        if (first.peek() == null)
+        {
+            first = this.buffers[--this.size];
+            this.buffers[this.size] = null;
+            if (this.size == 0)
+            {
+                return message;
+            }
+        }
+        this.siftDown(first);
+        return message;
+    }
+
+    /**
+     * Place a buffer from the top of the heap down to where it belongs.
+     * @param   buffer
+     *          the buffer to place
+     */
+    private void siftDown(ThreadBuffer buffer)
+    {
+        Message head = buffer.peek();
+        int index = 0;
+        int half = this.size >>> 1;
+        while (index < half)
+        {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < this.size &&
+                    ThreadBuffer.isBefore(this.buffers[right].peek(), this.buffers[child].peek()))
+            {
+                child = right;
+            }
+            if (!ThreadBuffer.isBefore(this.buffers[child].peek(), head))
+            {
+                break;
+            }
+            this.buffers[index] = this.buffers[child];
+            index = child;
+        }
+        this.buffers[index] = buffer;
+    }
+}
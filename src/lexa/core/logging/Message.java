@@ -13,50 +13,82 @@
  * ----------   --- ----------  --------------------------------------------------
  * 2016-09-14   WNW             Add support to output the log to a DataWriter
  * 2016-09-14   WNW             Update javadoc
+ * 2026-10-18   WNW user-001    Expose the type for the writer's overflow policy
+ * 2026-10-18   WNW user-006    Build the message text in the writer's buffer
+ * 2026-10-18   WNW user-007    Reusable messages holding primitive ids and times
+ * 2026-10-18   WNW user-008    Thread-safe ids, optionally by thread and sequence
+ * 2026-10-18   WNW user-009    Print the message's own time from a cached format
+ * 2026-10-18   WNW user-010    Text rendering moved to TextRenderer
+ * 2026-10-18   WNW user-014    Restore messages read from a binary log
+ * 2026-10-18   WNW user-016    Exception data shared with DataSetRenderer
+ * 2026-10-18   WNW user-020    Copy messages for each destination of a fan out
+ * 2026-10-18   WNW user-022    Time the message was logged, for its latency
+ * 2026-10-18   WNW user-023    Thread waiting for the message to be committed
+ * 2026-10-18   WNW user-024    Messages owned by the pool of a thread buffer
+ * 2026-10-18   WNW user-007    Upper case each type once, in the root locale
  *================================================================================
  */
 package lexa.core.logging;
 
-import java.io.PrintStream;
 import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import lexa.core.data.ArrayDataArray;
-import lexa.core.data.DataItem;
 import lexa.core.data.DataSet;
 import lexa.core.data.ArrayDataSet;
 import lexa.core.data.DataArray;
-import lexa.core.data.DataType;
-import lexa.core.data.DataValue;
-import lexa.core.data.formatting.DateTimeFormat;
 
 /**
  * A single message to be logged
+ * <p>Messages are reused by the {@link LogWriter}; a message is filled in with
+ * {@link #set(String, String, String, DataSet, Throwable, Object...) set} and
+ * emptied with {@link #clear() clear} once written.  The id and time stamp are
+ * held as primitives and only rendered by the thread writing the message.
  * @author william
  * @since 2015-06
  */
 class Message
 {
-    /** Format for writing the date */
-    //private static final ArrayDateFormat dateFormat =
-    //  new ArrayDateFormat ("E yyyy.MM.dd HH:mm:ss.SSS Z");
-    private static final DateTimeFormat DATE_TIME_FORMAT = new DateTimeFormat("E yyyy.MM.dd HH:mm:ss.SSS Z");
-    private static long lastMessage = 0;
+    /** Most types held in upper case; beyond this a type is converted each time */
+    private static final int MAX_TYPES = 1024;
+    /** The upper case form of each type logged */
+    private static final ConcurrentMap<String, String> TYPES = new ConcurrentHashMap<>();
+
+    /** Time the message was created, in milliseconds since the epoch */
+    private long dateStamp;
+    private String name;
+    private String type;
+    private String message;
+    private DataSet data;
+    private Throwable throwable;
+    private Object[] args;
+    private long id;
+    /** The id of the thread creating the message, or {@code -1} when not used */
+    private long threadId;
+    /** The sequence of the message within its thread */
+    private long sequence;
+    /** Time the message was logged, in {@link System#nanoTime()} */
+    private long logged;
+    /** The thread waiting for the message to be committed, or {@code null} */
+    private LogWriter.Waiter waiter;
+    /** The pool the message is returned to, or {@code null} for the writer's pool */
+    private final RingBuffer<Message> pool;
+
     /**
-     * Get the date and time formatted for output.
-     * @param date the date to format
-     * @return  the formatted date and time
+     * Create an empty message for reuse.
      */
-    private static String formattedDate(Date date) {
-        return Message.DATE_TIME_FORMAT.toString(new Date());
+    Message() {
+        this.pool = null;
     }
-    private final Date dateStamp;
-    private final String name;
-    private final String type;
-    private final String message;
-    private final DataSet data;
-    private final Throwable throwable;
-    private final Object[] args;
-    private final String id;
 
+    /**
+     * Create an empty message for reuse from a thread's own pool.
+     * @param pool the pool the message is returned to once written
+     */
+    Message(RingBuffer<Message> pool) {
+        this.pool = pool;
+    }
 
     Message(String name,
             String type,
@@ -64,115 +96,325 @@ class Message
             DataSet data,
             Throwable throwable,
             Object ... args) {
-        this.id = Long.toHexString(Message.lastMessage++);
-        this.dateStamp = new Date();
+        this.pool = null;
+        this.set(name, type, message, data, throwable, args);
+    }
+
+    /**
+     * Fill in the message.
+     * @return this message
+     */
+    Message set(String name,
+            String type,
+            String message,
+            DataSet data,
+            Throwable throwable,
+            Object ... args) {
+        MessageIds ids = MessageIds.current();
+        this.id = ids.nextId();
+        this.threadId = MessageIds.isThreadIds() ? ids.threadId() : -1;
+        this.sequence = ids.sequence();
+        this.dateStamp = System.currentTimeMillis();
+        this.logged = System.nanoTime();
         this.name = name;
-        this.type = type.toUpperCase();
+        this.type = Message.upperCase(type);
         this.message = message;
         this.data = data;
         this.throwable = throwable;
         this.args = args;
+        return this;
     }
 
-    void print(PrintStream stream) {
-        stream.print(this.id);
-        stream.print('\t');
-        stream.print(Message.formattedDate(this.dateStamp));
-        stream.print('\t');
-        stream.print(this.name);
-        stream.print('\t');
-        stream.print(this.type);
-        stream.print('\n');
-        stream.print(this.message);
-        if (this.args != null)
-        {
-            for (Object obj : args)
-            {
-                stream.print(obj);
+    /**
+     * Get a type in upper case.
+     * <br>
+     * Types are few and mostly constants, so each is converted once, in the
+     * {@link Locale#ROOT root locale}, and the result reused.
+     * @param   type
+     *          the type of message
+     * @return  the type in upper case
+     */
+    private static String upperCase(String type) {
+        String upper = Message.TYPES.get(type);
+        if (upper == null) {
+            upper = type.toUpperCase(Locale.ROOT);
+            if (Message.TYPES.size() < Message.MAX_TYPES) {
+                Message.TYPES.putIfAbsent(type, upper);
             }
         }
-        stream.print('\n');
-        if (data != null) {
-            this.printDataSet(stream, "\t",data);
-        }
-        if (throwable != null) {
-            stream.print("Exception:\n");
-            throwable.printStackTrace(stream);
+        return upper;
+    }
+
+    /**
+     * Fill in the message as read back from a log.
+     * @return this message
+     */
+    Message restore(long id,
+            long threadId,
+            long sequence,
+            long dateStamp,
+            String name,
+            String type,
+            String message,
+            DataSet data,
+            Throwable throwable) {
+        this.id = id;
+        this.threadId = threadId;
+        this.sequence = sequence;
+        this.dateStamp = dateStamp;
+        this.logged = System.nanoTime();
+        this.name = name;
+        this.type = type;
+        this.message = message;
+        this.data = data;
+        this.throwable = throwable;
+        this.args = null;
+        return this;
+    }
+
+    /**
+     * Fill in the message as a copy of another, keeping its id and time stamp.
+     * @return this message
+     */
+    Message copy(Message other) {
+        this.id = other.id;
+        this.threadId = other.threadId;
+        this.sequence = other.sequence;
+        this.dateStamp = other.dateStamp;
+        this.logged = other.logged;
+        this.name = other.name;
+        this.type = other.type;
+        this.message = other.message;
+        this.data = other.data;
+        this.throwable = other.throwable;
+        this.args = other.args;
+        return this;
+    }
+
+    /**
+     * Empty the message so that it holds no references once written.
+     */
+    void clear() {
+        this.waiter = null;
+        this.name = null;
+        this.type = null;
+        this.message = null;
+        this.data = null;
+        this.throwable = null;
+        this.args = null;
+    }
+
+    /**
+     * Get the id of the message as written to the log.
+     * <br>
+     * This is the id in hex, or the thread id and sequence in hex
+     * separated by {@code :} when messages are identified by thread.
+     * @return the id of the message
+     */
+    String getId()
+    {
+        if (this.threadId < 0)
+        {
+            return Long.toHexString(this.id);
         }
-        stream.print('\n');
+        return Long.toHexString(this.threadId) + ':' + Long.toHexString(this.sequence);
+    }
+
+    /**
+     * Get the id of the message.
+     * @return the id of the message
+     */
+    long getIdValue()
+    {
+        return this.id;
     }
+
+    /**
+     * Get the id of the thread creating the message.
+     * @return the id of the thread, or {@code -1} when messages are not identified by thread
+     */
+    long getThreadId()
+    {
+        return this.threadId;
+    }
+
     /**
-     * Write the content of a {@link DataSet} to the log stream.
-     * @param   data
-     *          a {@link DataSet} to write to the log stream.
-     * @param   prefix
-     *          a string to write prior to each {@link DataItem}
+     * Get the sequence of the message within its thread.
+     * @return the sequence of the message
      */
-    private void printDataSet(PrintStream stream, String prefix, DataSet data) {
-        if (data == null || data.isEmpty()) {
-            stream.print(prefix);
-            stream.println("[empty]");
+    long getSequence()
+    {
+        return this.sequence;
+    }
+
+    /**
+     * Get the type of the message.
+     * @return the type of the message in upper case
+     */
+    String getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * Append the id of the message, as returned by {@link #getId()}, to a buffer.
+     * <br>
+     * The digits are appended directly, without creating a string.
+     * @param   buffer
+     *          the buffer to append to
+     */
+    void appendId(StringBuilder buffer)
+    {
+        if (this.threadId < 0)
+        {
+            Message.appendHex(buffer, this.id);
+            return;
         }
-        for (DataItem item : data) {
-            this.printDataValue(stream, prefix +  item.getKey(), item.getValue());
+        Message.appendHex(buffer, this.threadId);
+        buffer.append(':');
+        Message.appendHex(buffer, this.sequence);
+    }
+
+    /**
+     * Append a value in hex to a buffer.
+     * @param   buffer
+     *          the buffer to append to
+     * @param   value
+     *          the value to append, treated as unsigned
+     */
+    private static void appendHex(StringBuilder buffer, long value)
+    {
+        int digits = Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(value) + 3) / 4);
+        for (int d = digits - 1; d >= 0; d--)
+        {
+            buffer.append(Character.forDigit((int)(value >>> (d * 4)) & 0xf, 16));
         }
     }
+
+    /**
+     * Get the time the message was created.
+     * @return the time in milliseconds since the epoch
+     */
+    long getDateStamp()
+    {
+        return this.dateStamp;
+    }
+
+    /**
+     * Get the time the message was logged, for measuring its latency.
+     * @return the time in {@link System#nanoTime()}
+     */
+    long getLogged()
+    {
+        return this.logged;
+    }
+
+    /**
+     * Set the thread waiting for the message to be committed.
+     * @param waiter the waiting thread
+     */
+    void setWaiter(LogWriter.Waiter waiter)
+    {
+        this.waiter = waiter;
+    }
+
+    /**
+     * Get the thread waiting for the message to be committed.
+     * @return the waiting thread, or {@code null} if none is waiting
+     */
+    LogWriter.Waiter getWaiter()
+    {
+        return this.waiter;
+    }
+
+    /**
+     * Get the pool the message is returned to once written.
+     * @return the pool of the thread that logged it, or {@code null} for the writer's pool
+     */
+    RingBuffer<Message> getPool()
+    {
+        return this.pool;
+    }
+
+    /**
+     * Get the name of the log writing the message.
+     * @return the name of the log
+     */
+    String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Get the text of the message, without the arguments.
+     * @return the text of the message
+     */
+    String getMessage()
+    {
+        return this.message;
+    }
+
+    /**
+     * Get the arguments appended to the text of the message.
+     * @return the arguments, or {@code null} if there are none
+     */
+    Object[] getArgs()
+    {
+        return this.args;
+    }
+
+    /**
+     * Get the data set included in the message.
+     * @return the data set, or {@code null} if there is none
+     */
+    DataSet getDataSet()
+    {
+        return this.data;
+    }
+
     /**
-     * Write the content of a {@link DataSet} to the log stream.
-     * @param   data
-     *          a {@link DataSet} to write to the log stream.
-     * @param   indent
-     *          a string to write prior to each {@link DataItem}
+     * Get the exception included in the message.
+     * @return the exception, or {@code null} if there is none
      */
-    private void printDataValue(PrintStream stream, String prefix, DataValue value) {
-        DataType type = value.getType();
-        switch (type)
+    Throwable getThrowable()
+    {
+        return this.throwable;
+    }
+
+    /**
+     * Get the text of the message with any arguments appended.
+     * <br>
+     * The arguments are only rendered here, by the thread writing the log.
+     * @param   buffer
+     *          a buffer, owned by the caller, used to build the text
+     * @return  the text of the message
+     */
+    String getText(StringBuilder buffer)
+    {
+        if (this.args == null || this.args.length == 0)
         {
-            case ARRAY :
-            {
-                DataArray array = value.getArray();
-                for (int i = 0; i < array.size(); i++)
-                {
-                    this.printDataValue(stream, prefix + "[" + i + "]", array.get(i));
-                }
-                break;
-            }
-            case DATA_SET :
-            {
-                this.printDataSet(stream, "\t" + prefix + ".",value.getDataSet());
-                break;
-            }
-            default:
-            {
-                stream.print(prefix);
-                stream.print(type.getTypeChar());
-                Object obj = value.getObject();
-                if (obj != null) {
-                    stream.print('\t');
-                    stream.print(obj);
-                }
-                else
-                {
-                    stream.print("\t[null]");
-                }
-                stream.print('\n');
-                break;
-            }
+            return this.message;
+        }
+        buffer.setLength(0);
+        buffer.append(this.message);
+        for (Object obj : this.args)
+        {
+            buffer.append(obj);
         }
+        return buffer.toString();
     }
 
-    DataSet getData()
+    /**
+     * Get the message as a {@link DataSet} for writing.
+     * @param   buffer
+     *          a buffer, owned by the caller, used to build the text
+     * @return  the message as a {@link DataSet}
+     */
+    DataSet getData(StringBuilder buffer)
     {
-        String fullMessage = message;
-            if (this.args != null)
-            {
-                for (Object obj : args)
-                {
-                    fullMessage = fullMessage + obj;
-                }
-            }
+        String fullMessage = this.getText(buffer);
         DataSet msgData = new ArrayDataSet()
-                .put("dateStamp",this.dateStamp)
+                .put("dateStamp",new Date(this.dateStamp))
                 .put("name",this.name)
                 .put("type",this.type)
                 .put("message",fullMessage);
@@ -180,22 +422,29 @@ class Message
             msgData.put("data",data);
         }
         if (this.throwable != null) {
-            DataArray stack = new ArrayDataArray();
-            for (StackTraceElement ste : this.throwable.getStackTrace())
-            {
-                stack.add(ste.toString());
-            }
-            msgData.put("exception",
-                    new ArrayDataSet()
-                        .put("message",this.throwable.getMessage())
-                        .put("stack",stack)
-            );
+            msgData.put("exception", this.getExceptionData());
         }
         return new ArrayDataSet()
                 .put(
-                        this.id,
+                        this.getId(),
                         msgData
                 );
     }
 
+    /**
+     * Get the exception included in the message as a {@link DataSet}.
+     * @return  the message and stack of the exception
+     */
+    DataSet getExceptionData()
+    {
+        DataArray stack = new ArrayDataArray();
+        for (String frame : DecodedThrowable.frames(this.throwable))
+        {
+            stack.add(frame);
+        }
+        return new ArrayDataSet()
+                .put("message",this.throwable.getMessage())
+                .put("stack",stack);
+    }
+
 }
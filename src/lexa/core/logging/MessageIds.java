@@ -0,0 +1,121 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * MessageIds.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-008    Thread-safe message ids allocated in blocks
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates the ids for messages.
+ * <p>Each thread reserves a block of ids from a shared counter and hands them
+ * out without any further synchronisation, so ids are unique and only touch
+ * shared memory once per block.  Ids are roughly in the order the messages
+ * were created; a thread that logs rarely may use ids from an older block.
+ * <p>Each thread also counts the messages it creates, so a message can instead
+ * be identified by its thread id and sequence, which are strictly ordered for
+ * the thread.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class MessageIds
+{
+    /** Number of ids reserved by a thread at a time */
+    private static final int BLOCK_SIZE = 64;
+    /** The first id of the next block to reserve */
+    private static final AtomicLong NEXT_BLOCK = new AtomicLong();
+    /** The ids for each thread */
+    private static final ThreadLocal<MessageIds> IDS =
+            ThreadLocal.withInitial(MessageIds::new);
+    /** Identify messages by thread id and sequence */
+    private static volatile boolean threadIds;
+
+    /**
+     * Get the ids for the current thread.
+     * @return the ids for the current thread
+     */
+    static MessageIds current()
+    {
+        return MessageIds.IDS.get();
+    }
+
+    /**
+     * Indicates if messages are identified by thread id and sequence.
+     * @return  {@code true} if messages are identified by thread id and sequence,
+     *          otherwise {@code false}
+     */
+    static boolean isThreadIds()
+    {
+        return MessageIds.threadIds;
+    }
+
+    /**
+     * Set if messages are identified by thread id and sequence.
+     * @param   threadIds
+     *          {@code true} to identify messages by thread id and sequence,
+     *          {@code false} to identify them by id.
+     */
+    static void setThreadIds(boolean threadIds)
+    {
+        MessageIds.threadIds = threadIds;
+    }
+
+    /** The id of the thread */
+    private final long threadId;
+    /** The next id to use */
+    private long next;
+    /** The end of the reserved block */
+    private long limit;
+    /** The number of ids used by the thread */
+    private long sequence;
+
+    private MessageIds()
+    {
+        this.threadId = Thread.currentThread().getId();
+    }
+
+    /**
+     * Get the next id, reserving a new block when needed.
+     * @return the next id
+     */
+    long nextId()
+    {
+        if (this.next == this.limit)
+        {
+            this.next = MessageIds.NEXT_BLOCK.getAndAdd(MessageIds.BLOCK_SIZE);
+            this.limit = this.next + MessageIds.BLOCK_SIZE;
+        }
+        this.sequence++;
+        return this.next++;
+    }
+
+    /**
+     * Get the id of the thread.
+     * @return the id of the thread
+     */
+    long threadId()
+    {
+        return this.threadId;
+    }
+
+    /**
+     * Get the sequence of the last id used by the thread.
+     * @return the sequence of the last id
+     */
+    long sequence()
+    {
+        return this.sequence;
+    }
+}
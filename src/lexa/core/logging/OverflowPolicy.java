@@ -0,0 +1,60 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * OverflowPolicy.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-001    Overflow handling for the asynchronous writer
+ *================================================================================
+ */
+package lexa.core.logging;
+
+/**
+ * The action taken by an asynchronous {@link LogWriter} when its queue is full.
+ *
+ * @author william
+ * @since 2026-10
+ */
+enum OverflowPolicy
+{
+    /** Wait for the writer to make space in the queue. */
+    BLOCK("block"),
+    /** Discard the oldest queued message to make space. */
+    DROP_OLDEST("dropOldest"),
+    /** Discard the message being logged. */
+    DROP_NEWEST("dropNewest"),
+    /** Discard the message being logged unless it is an {@code ERROR}, which waits. */
+    DROP_BELOW_ERROR("dropBelowError");
+
+    /** The name used in the configuration */
+    private final String configName;
+
+    private OverflowPolicy(String configName)
+    {
+        this.configName = configName;
+    }
+
+    /**
+     * Get the policy for a configuration name.
+     * @param   configName
+     *          the name of the policy as used in the configuration
+     * @return  the matching policy, or {@code null} if there is no match.
+     */
+    static OverflowPolicy fromConfig(String configName)
+    {
+        for (OverflowPolicy policy : OverflowPolicy.values())
+        {
+            if (policy.configName.equals(configName))
+            {
+                return policy;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * RateLimiter.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-019    Token bucket limit on the messages for a name and type
+ * 2026-10-18   WNW user-019    Summarise the end of a burst from a timer thread
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limits the rate of messages for a name and type.
+ * <p>The limiter is a token bucket holding up to a second's worth of messages,
+ * refilled continuously at the configured rate.  Rather than a count of tokens
+ * it holds the time at which the bucket will next be full, so taking a token
+ * is a single compare and set and no locks are taken.
+ * <p>Messages refused are counted, and the count is handed out at most once
+ * every {@value #SUMMARY_SECONDS} second so that the logger can write a summary.
+ * While messages keep coming the summary is written by the logger checking
+ * the next one; a limiter with a count is also queued for a daemon summariser
+ * thread, which writes the count left at the end of a burst, under the class
+ * name, once the second has passed.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class RateLimiter
+{
+    /** The seconds between summaries of the messages refused */
+    private static final int SUMMARY_SECONDS = 1;
+    /** The nanoseconds between summaries of the messages refused */
+    private static final long SUMMARY_NANOS = TimeUnit.SECONDS.toNanos(RateLimiter.SUMMARY_SECONDS);
+
+    /** The nanoseconds between messages at the limit */
+    private final long interval;
+    /** The nanoseconds of messages the bucket holds */
+    private final long capacity;
+    /** The time the bucket is next full, in {@link System#nanoTime()} */
+    private final AtomicLong full;
+    /** The messages refused since the last summary */
+    private final AtomicLong suppressed;
+    /** The time of the last summary, in {@link System#nanoTime()} */
+    private final AtomicLong summary;
+    /** The name of the logging class, for the summary */
+    private final String name;
+    /** The type of the logging message, for the summary */
+    private final String type;
+    /** Set while the limiter is queued for the summariser */
+    private final AtomicBoolean queued;
+
+    /** The limiters with refused messages, queued for the summariser */
+    private static final Queue<RateLimiter> SUPPRESSING = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Create a limiter.
+     * @param   name
+     *          the name of the logging class
+     * @param   type
+     *          the type of the logging message
+     * @param   rate
+     *          the most messages allowed each second
+     */
+    RateLimiter(String name, String type, int rate)
+    {
+        if (rate < 1)
+        {
+            throw new IllegalArgumentException("Invalid rate " + rate);
+        }
+        this.name = name;
+        this.type = type;
+        this.queued = new AtomicBoolean();
+        long now = System.nanoTime();
+        this.interval = Math.max(1, TimeUnit.SECONDS.toNanos(1) / rate);
+        this.capacity = this.interval * rate;
+        this.full = new AtomicLong(now);
+        this.suppressed = new AtomicLong();
+        this.summary = new AtomicLong(now);
+    }
+
+    /**
+     * Take a token for a message.
+     * @param   now
+     *          the current time, from {@link System#nanoTime()}
+     * @return  {@code true} if the message is allowed,
+     *          {@code false} if it is suppressed
+     */
+    boolean tryAcquire(long now)
+    {
+        while (true)
+        {
+            long full = this.full.get();
+            long next = (full - now > 0 ? full : now) + this.interval;
+            if (next - now > this.capacity)
+            {
+                this.suppressed.incrementAndGet();
+                this.queue();
+                return false;
+            }
+            if (this.full.compareAndSet(full, next))
+            {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Take the count of suppressed messages once a summary is due.
+     * <br>
+     * Only one caller is given the count for each summary.
+     * @param   now
+     *          the current time, from {@link System#nanoTime()}
+     * @return  the messages suppressed since the last summary,
+     *          or {@code 0} if no summary is due
+     */
+    long takeSuppressed(long now)
+    {
+        if (this.suppressed.get() == 0)
+        {
+            return 0;
+        }
+        long last = this.summary.get();
+        if (now - last < RateLimiter.SUMMARY_NANOS ||
+                !this.summary.compareAndSet(last, now))
+        {
+            return 0;
+        }
+        return this.suppressed.getAndSet(0);
+    }
+
+    /**
+     * Queue the limiter for the summariser, unless it is already queued.
+     * <br>
+     * The count is raised before the flag is read, and the summariser clears
+     * the flag before it reads the count, so a refused message is never left
+     * without a summary to come.
+     */
+    private void queue()
+    {
+        if (!this.queued.get() && this.queued.compareAndSet(false, true))
+        {
+            RateLimiter.SUPPRESSING.offer(this);
+            if (Thread.currentThread() != Summariser.THREAD)
+            {
+                LockSupport.unpark(Summariser.THREAD);
+            }
+        }
+    }
+
+    /**
+     * Write the summaries that are due for the queued limiters.
+     * <br>
+     * A limiter whose summary is not yet due, or still has a count after it,
+     * is queued again.
+     * @param   now
+     *          the current time, from {@link System#nanoTime()}
+     * @param   writer
+     *          the writer for the summaries, or {@code null} if there is none
+     * @return  the nanoseconds until the next summary is due,
+     *          or {@code 0} if no limiter is queued
+     */
+    static long summarise(long now, LogWriter writer)
+    {
+        List<RateLimiter> limiters = new ArrayList<>();
+        RateLimiter limiter;
+        while ((limiter = RateLimiter.SUPPRESSING.poll()) != null)
+        {
+            limiters.add(limiter);
+        }
+        long wait = 0;
+        for (RateLimiter queued : limiters)
+        {
+            queued.queued.set(false);
+            if (writer != null)
+            {
+                long suppressed = queued.takeSuppressed(now);
+                if (suppressed > 0)
+                {
+                    writer.message(queued.name, queued.type, suppressed + " messages suppressed",
+                            null, null);
+                }
+            }
+            if (queued.suppressed.get() > 0)
+            {
+                queued.queue();
+                long due = Math.max(1,
+                        queued.summary.get() + RateLimiter.SUMMARY_NANOS - now);
+                wait = wait == 0 ? due : Math.min(wait, due);
+            }
+        }
+        return wait;
+    }
+
+    /**
+     * Write the summaries of the limiters as they fall due.
+     * <br>
+     * This is run by the summariser thread, which sleeps until a limiter is
+     * queued or the next summary is due.
+     */
+    private static void summarise()
+    {
+        while (true)
+        {
+            long wait = RateLimiter.summarise(System.nanoTime(), Logger.writer());
+            if (wait == 0)
+            {
+                LockSupport.park(RateLimiter.SUPPRESSING);
+            }
+            else
+            {
+                LockSupport.parkNanos(RateLimiter.SUPPRESSING, wait);
+            }
+        }
+    }
+
+    /**
+     * Holds the summariser thread, started the first time a message is refused.
+     */
+    private static class Summariser
+    {
+        /** The thread writing the summaries */
+        private static final Thread THREAD = Summariser.start();
+
+        /**
+         * Start the summariser thread.
+         * @return  the thread
+         */
+        private static Thread start()
+        {
+            Thread thread = new Thread(RateLimiter::summarise, "lxLogging-limits");
+            thread.setDaemon(true);
+            thread.start();
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * RingBuffer.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-001    Bounded lock-free queue for the asynchronous writer
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free queue used to pass messages to the writer thread.
+ * <p>Each slot carries a sequence number that tells producers and consumers
+ * whether it is free to write or ready to read, so claiming a slot is a single
+ * CAS on the tail (or head) followed by the slot write.
+ * <p>Any number of threads may offer to the queue.  The writer thread is the
+ * normal consumer, but producers may also poll to discard the oldest entry
+ * when the queue is full.
+ *
+ * @param <E> the type of element held in the queue
+ * @author william
+ * @since 2026-10
+ */
+class RingBuffer<E>
+{
+    /** mask applied to a position to get the slot index */
+    private final int mask;
+    /** the elements in the queue */
+    private final AtomicReferenceArray<E> slots;
+    /** the sequence for each slot */
+    private final AtomicLongArray sequences;
+    /** the next position to write */
+    private final AtomicLong tail;
+    /** the next position to read */
+    private final AtomicLong head;
+
+    /**
+     * Create a queue.
+     * @param   capacity
+     *          the minimum number of elements the queue can hold;
+     *          this is rounded up to a power of two.
+     */
+    RingBuffer(int capacity)
+    {
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("Invalid queue capacity " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+        {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+        {
+            this.sequences.set(i, i);
+        }
+        this.tail = new AtomicLong();
+        this.head = new AtomicLong();
+    }
+
+    /**
+     * Get the number of elements the queue can hold.
+     * @return the capacity of the queue
+     */
+    int capacity()
+    {
+        return this.mask + 1;
+    }
+
+    /**
+     * Indicates if the queue has no elements.
+     * @return {@code true} if the queue is empty, otherwise {@code false}
+     */
+    boolean isEmpty()
+    {
+        return this.head.get() >= this.tail.get();
+    }
+
+    /**
+     * Add an element to the queue.
+     * @param   element
+     *          the element to add
+     * @return  {@code true} if the element was added,
+     *          or {@code false} if the queue is full.
+     */
+    boolean offer(E element)
+    {
+        long pos = this.tail.get();
+        for (;;)
+        {
+            int index = (int)pos & this.mask;
+            long diff = this.sequences.get(index) - pos;
+            if (diff == 0)
+            {
+                if (this.tail.compareAndSet(pos, pos + 1))
+                {
+                    this.slots.lazySet(index, element);
+                    this.sequences.lazySet(index, pos + 1);
+                    return true;
+                }
+            }
+            else if (diff < 0)
+            {
+                return false;
+            }
+            pos = this.tail.get();
+        }
+    }
+
+    /**
+     * Remove the oldest element from the queue.
+     * @return  the oldest element, or {@code null} if the queue is empty.
+     */
+    E poll()
+    {
+        long pos = this.head.get();
+        for (;;)
+        {
+            int index = (int)pos & this.mask;
+            long diff = this.sequences.get(index) - (pos + 1);
+            if (diff == 0)
+            {
+                if (this.head.compareAndSet(pos, pos + 1))
+                {
+                    E element = this.slots.get(index);
+                    this.slots.lazySet(index, null);
+                    this.sequences.lazySet(index, pos + this.mask + 1);
+                    return element;
+                }
+            }
+            else if (diff < 0)
+            {
+                return null;
+            }
+            pos = this.head.get();
+        }
+    }
+
+    /**
+     * Get an estimate of the number of elements in the queue.
+     * @return the number of elements in the queue
+     */
+    int size()
+    {
+        long size = this.tail.get() - this.head.get();
+        return size < 0 ? 0 : (int)Math.min(size, this.capacity());
+    }
+}
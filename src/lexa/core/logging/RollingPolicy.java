@@ -0,0 +1,146 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * RollingPolicy.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-012    Decide when a log file is rolled
+ * 2026-10-18   WNW user-013    Remove archives by age
+ * 2026-10-18   WNW user-012    Try a failed roll again after a delay
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.util.TimeZone;
+
+/**
+ * Decides when a log file is archived and a new one started.
+ * <p>A log rolls once it has reached a size, or when the time passes a
+ * boundary; boundaries are a whole number of minutes apart, counted from
+ * local midnight.  After rolling at most a set number of archives are kept,
+ * and archives older than a set number of days are removed.  A roll that
+ * fails is not due again for {@value #RETRY_MILLIS} milliseconds, so the log
+ * carries on in the current file without trying on every message.
+ * <p>The policy keeps track of the next boundary, so each log file needs its
+ * own instance; it is only used by the thread writing to the log.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class RollingPolicy
+{
+    /** Milliseconds after a failed roll before it is tried again */
+    private static final long RETRY_MILLIS = 10000;
+
+    /** Bytes written before the log rolls; 0 for no limit */
+    private final long maxBytes;
+    /** Milliseconds between time boundaries; 0 for none */
+    private final long interval;
+    /** Number of archives kept; 0 to keep them all */
+    private final int keep;
+    /** Milliseconds an archive is kept; 0 to keep them all */
+    private final long maxAge;
+    /** The next time boundary */
+    private long nextBoundary;
+    /** The time a failed roll can be tried again; {@code 0} when none failed */
+    private long retryAt;
+
+    /**
+     * Create a policy.
+     * @param   maxBytes
+     *          the bytes written before the log rolls; use {@code 0} for no limit.
+     * @param   intervalMinutes
+     *          the minutes between time boundaries; use {@code 0} for none.
+     * @param   keep
+     *          the number of archives kept; use {@code 0} to keep them all.
+     * @param   keepDays
+     *          the days an archive is kept; use {@code 0} to keep them all.
+     */
+    RollingPolicy(long maxBytes, int intervalMinutes, int keep, int keepDays)
+    {
+        if (maxBytes < 0 || intervalMinutes < 0 || keep < 0 || keepDays < 0)
+        {
+            throw new IllegalArgumentException("Invalid rolling policy");
+        }
+        this.maxBytes = maxBytes;
+        this.interval = intervalMinutes * 60000L;
+        this.keep = keep;
+        this.maxAge = keepDays * 86400000L;
+        this.rolled();
+    }
+
+    /**
+     * Get the number of archives kept.
+     * @return the number of archives kept, or {@code 0} to keep them all
+     */
+    int getKeep()
+    {
+        return this.keep;
+    }
+
+    /**
+     * Get the age at which archives are removed.
+     * @return the milliseconds an archive is kept, or {@code 0} to keep them all
+     */
+    long getMaxAge()
+    {
+        return this.maxAge;
+    }
+
+    /**
+     * Indicates if the log should roll now.
+     * @param   bytes
+     *          the bytes written to the log
+     * @return  {@code true} if the log should roll,
+     *          otherwise {@code false}
+     */
+    boolean isDue(long bytes)
+    {
+        if (this.retryAt != 0 && System.currentTimeMillis() < this.retryAt)
+        {
+            return false;
+        }
+        return (this.maxBytes > 0 && bytes >= this.maxBytes) ||
+                (this.interval > 0 && System.currentTimeMillis() >= this.nextBoundary);
+    }
+
+    /**
+     * Indicates if the policy limits the size of the log.
+     * @return  {@code true} if the log rolls at a size,
+     *          otherwise {@code false}
+     */
+    boolean hasMaxBytes()
+    {
+        return this.maxBytes > 0;
+    }
+
+    /**
+     * Record that the log has rolled and work out the next time boundary.
+     */
+    final void rolled()
+    {
+        this.retryAt = 0;
+        if (this.interval == 0)
+        {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long offset = TimeZone.getDefault().getOffset(now);
+        long local = now + offset;
+        this.nextBoundary = local - Math.floorMod(local, this.interval) + this.interval - offset;
+    }
+
+    /**
+     * Record that the log failed to roll, so it is tried again later.
+     */
+    void failed()
+    {
+        this.retryAt = System.currentTimeMillis() + RollingPolicy.RETRY_MILLIS;
+    }
+}
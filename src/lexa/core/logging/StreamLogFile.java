@@ -1,18 +1,57 @@
 /*
- * To change this license header, choose License Headers in Project Properties.
- * To change this template file, choose Tools | Templates
- * and open the template in the editor.
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * StreamLogFile.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: September 2016
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-009    Time stamps rendered from a cached format
+ * 2026-10-18   WNW user-010    Encode the messages into a reused buffer
+ * 2026-10-18   WNW user-012    Roll the file by its rolling policy
+ * 2026-10-18   WNW user-013    Hold back compressing the archive until the file is closed
+ * 2026-10-18   WNW user-015    Take the renderer for short names
+ * 2026-10-18   WNW user-022    Count the bytes written
+ * 2026-10-18   WNW user-023    Sync the file to storage
+ * 2026-10-18   WNW user-025    Write the file without the monitor of the print stream
+ * 2026-10-18   WNW user-002    Buffer the messages until the log is flushed
+ * 2026-10-18   WNW user-002    Encode in the platform charset, or a configured one
+ * 2026-10-18   WNW user-012    Close the file before archiving it when rolling
+ *================================================================================
  */
 package lexa.core.logging;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
-import java.nio.file.Files;
-import java.util.Date;
-import lexa.core.data.formatting.DateTimeFormat;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * A text log file written to a {@link PrintStream}.
+ * <p>When writing to a file a {@link RollingPolicy} can be given; once it is due
+ * the file is closed, archived and a new one started by the thread writing
+ * the log.
+ * <p>Messages are encoded into a buffer that is written out when it is full
+ * and when the log is flushed, so the {@link FlushPolicy} decides how often
+ * the operating system is called.  For a file the buffer is written straight
+ * to its {@link FileOutputStream}, bypassing the monitor of the
+ * {@link PrintStream}, which is only used to report errors in logging.
+ * <p>The text is encoded in the platform's default charset unless another is
+ * given.  UTF-8 is encoded directly by {@link Utf8Encoder}; any other charset
+ * goes through a reused {@link CharsetEncoder}, with characters it cannot
+ * encode replaced.
  *
  * @author william
  */
@@ -20,66 +59,194 @@ class StreamLogFile
         implements LogFile
 {
     /** Stream to write to */
-    private final PrintStream log;
+    private PrintStream log;
+    /** The stream to the file, or {@code null} for a supplied stream */
+    private FileOutputStream out;
+    /** The file being written, or {@code null} for a stream */
+    private final File file;
+    /** The file as opened for {@link LogArchive}, or {@code null} for a stream */
+    private LogArchive.Handle handle;
+    /** Decides when the file is rolled, or {@code null} to never roll */
+    private final RollingPolicy rolling;
+    /** Bytes written to the current file */
+    private long bytesWritten;
+    /** Bytes written to all of the files, for the statistics */
+    private final AtomicLong totalBytes = new AtomicLong();
+    /** Size of the buffer for encoding messages */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /** Renders the messages as text */
+    private final TextRenderer renderer;
+    /** Buffer for the encoded messages */
+    private final ByteBuffer bytes = ByteBuffer.allocate(StreamLogFile.BUFFER_SIZE);
+    /** The charset the text is written in */
+    private final Charset charset;
+    /** Encodes the text, or {@code null} when it is encoded as UTF-8 */
+    private final CharsetEncoder encoder;
+    /** Buffer for the characters being encoded by the {@link #encoder} */
+    private final CharBuffer chars;
 
     StreamLogFile()
     {
         this(System.out);
     }
     StreamLogFile(File file)
+    {
+        this(file, null);
+    }
+    StreamLogFile(File file, RollingPolicy rolling)
+    {
+        this(file, rolling, new TextRenderer());
+    }
+    StreamLogFile(File file, RollingPolicy rolling, TextRenderer renderer)
+    {
+        this(file, rolling, renderer, Charset.defaultCharset());
+    }
+    StreamLogFile(File file, RollingPolicy rolling, TextRenderer renderer, Charset charset)
     {
 		if (file == null) {
             throw new IllegalArgumentException("Null log stream");
 		}
-        PrintStream stream = null;
+        this.charset = charset;
+        this.encoder = StreamLogFile.encoder(charset);
+        this.chars = this.encoder == null ? null : CharBuffer.allocate(StreamLogFile.BUFFER_SIZE / 16);
+        this.file = file;
+        this.rolling = rolling;
+        this.renderer = renderer;
         try
         {
-            if (!file.exists()) {
-                File parent = file.getParentFile();
-                // does the directory?
-                if (parent != null && !parent.exists())
-                {
-                    parent.mkdirs();
-                }
-            }
-            else
-            {
-				// move to archive
-				String path = file.getParent() + "//archive//";
-				String timeStamp = new DateTimeFormat(".yyyyMMdd_HHmmss_SSS.").toString(
-						new Date(file.lastModified()));
-				String archiveName = file.getName().replaceFirst("\\.", timeStamp);
-				File archive = new File(path,archiveName);
-				archive.getParentFile().mkdirs();
-				Files.move(file.toPath(), archive.toPath());
-            }
-            stream = new PrintStream(file);
+            LogArchive.prepare(file);
+            this.open(false);
         }
         catch (IOException ex)
         {
 
             new Logger("Logger","static").error("Rename failed", null, ex);
         }
-        this.log=stream;
     }
     StreamLogFile(PrintStream log)
     {
+        this(log, new TextRenderer());
+    }
+    StreamLogFile(PrintStream log, TextRenderer renderer)
+    {
+        this(log, renderer, Charset.defaultCharset());
+    }
+    StreamLogFile(PrintStream log, TextRenderer renderer, Charset charset)
+    {
+        this.charset = charset;
+        this.encoder = StreamLogFile.encoder(charset);
+        this.chars = this.encoder == null ? null : CharBuffer.allocate(StreamLogFile.BUFFER_SIZE / 16);
         this.log = log;
+        this.file = null;
+        this.rolling = null;
+        this.renderer = renderer;
+    }
+
+    /**
+     * Get an encoder for a charset.
+     * @param   charset
+     *          the charset the text is written in
+     * @return  an encoder that replaces what it cannot encode,
+     *          or {@code null} for UTF-8, which is encoded directly
+     */
+    private static CharsetEncoder encoder(Charset charset)
+    {
+        if (StandardCharsets.UTF_8.equals(charset))
+        {
+            return null;
+        }
+        return charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Open the file for writing.
+     * @param   append
+     *          {@code true} to carry on at the end of the file,
+     *          {@code false} to start it again
+     * @throws  IOException
+     *          when the file cannot be opened
+     */
+    private void open(boolean append)
+            throws IOException
+    {
+        FileOutputStream stream = new FileOutputStream(this.file, append);
+        this.log = new PrintStream(stream, false, this.charset.name());
+        this.out = stream;
+        this.handle = LogArchive.opened(this.file);
     }
 
     @Override
     public void close()
     {
-        if (this.log != System.out)
+        this.flush();
+        if (this.log != System.out && this.log != System.err)
         {
             this.log.close();
         }
+        LogArchive.closed(this.handle);
+        this.handle = null;
     }
 
     @Override
     public void flush()
     {
-        this.log.flush();
+        try
+        {
+            this.drain();
+        }
+        catch (IOException ex)
+        {
+            System.err.println("lexa.core.logging.StreamLogFile.flush()");
+            ex.printStackTrace(System.err);
+        }
+        // the file's stream is not buffered, so only a supplied stream needs flushing
+        if (this.out == null)
+        {
+            this.log.flush();
+        }
+    }
+
+    /**
+     * Write the bytes in the buffer to the stream.
+     * @throws  IOException
+     *          when the file cannot be written
+     */
+    private void drain()
+            throws IOException
+    {
+        if (this.bytes.position() > 0)
+        {
+            OutputStream target = this.out != null ? this.out : this.log;
+            target.write(this.bytes.array(), 0, this.bytes.position());
+            this.bytes.clear();
+        }
+    }
+
+    @Override
+    public void sync()
+    {
+        this.flush();
+        if (this.out == null)
+        {
+            return;
+        }
+        try
+        {
+            this.out.getChannel().force(false);
+        }
+        catch (IOException ex)
+        {
+            System.err.println("lexa.core.logging.StreamLogFile.sync()");
+            ex.printStackTrace(System.err);
+        }
+    }
+
+    @Override
+    public long getBytesWritten()
+    {
+        return this.totalBytes.get();
     }
 
     @Override
@@ -87,15 +254,159 @@ class StreamLogFile
     {
         try
         {
-            message.print(this.log);
+            CharSequence text = this.renderer.render(message);
+            if (this.encoder == null)
+            {
+                this.encodeUtf8(text);
+            }
+            else
+            {
+                this.encode(text);
+            }
         }
         catch (Exception ex)
         {
+            // the messages already buffered go before the error
+            this.flush();
             this.log.print("\n**ERROR IN LOGGING**\n");
             ex.printStackTrace(this.log);
             this.log.print("****\n\n");
         }
+        if (this.rolling != null && this.rolling.isDue(this.bytesWritten))
+        {
+            this.roll();
+        }
+    }
+
+    /**
+     * Encode text into the buffer as UTF-8, draining the buffer as it fills.
+     * @param   text
+     *          the text to encode
+     * @throws  IOException
+     *          when the file cannot be written
+     */
+    private void encodeUtf8(CharSequence text)
+            throws IOException
+    {
+        int index = 0;
+        for (;;)
+        {
+            int start = this.bytes.position();
+            index = Utf8Encoder.encode(text, index, this.bytes);
+            this.count(start);
+            if (index >= text.length())
+            {
+                return;
+            }
+            this.drain();
+        }
+    }
+
+    /**
+     * Encode text into the buffer with the charset's encoder, draining the
+     * buffer as it fills.
+     * <br>
+     * The text is copied into the character buffer a block at a time, so
+     * nothing is allocated; a surrogate pair split across two blocks is left
+     * in the character buffer by the encoder until the rest arrives.
+     * @param   text
+     *          the text to encode
+     * @throws  IOException
+     *          when the file cannot be written
+     */
+    private void encode(CharSequence text)
+            throws IOException
+    {
+        int length = text.length();
+        int index = 0;
+        boolean end;
+        do
+        {
+            while (index < length && this.chars.hasRemaining())
+            {
+                this.chars.put(text.charAt(index++));
+            }
+            end = index >= length;
+            this.chars.flip();
+            int start = this.bytes.position();
+            while (this.encoder.encode(this.chars, this.bytes, end).isOverflow())
+            {
+                this.count(start);
+                this.drain();
+                start = this.bytes.position();
+            }
+            this.count(start);
+            this.chars.compact();
+        } while (!end);
+        int start = this.bytes.position();
+        while (this.encoder.flush(this.bytes).isOverflow())
+        {
+            this.count(start);
+            this.drain();
+            start = this.bytes.position();
+        }
+        this.count(start);
+        this.encoder.reset();
     }
 
+    /**
+     * Count the bytes encoded into the buffer.
+     * @param   start
+     *          the position of the buffer before encoding
+     */
+    private void count(int start)
+    {
+        int bytes = this.bytes.position() - start;
+        this.bytesWritten += bytes;
+        // only this thread writes the total
+        this.totalBytes.lazySet(this.totalBytes.get() + bytes);
+    }
 
+    /**
+     * Archive the current file and start a new one.
+     * <br>
+     * The current file is closed before it is archived, as a file that is
+     * open cannot be moved on every platform.  If it cannot be archived it is
+     * opened again and the log carries on at its end; if even that fails the
+     * log is written to {@link System#err}.  Either way the roll is tried
+     * again later.
+     */
+    private void roll()
+    {
+        this.close();
+        boolean archived = true;
+        try
+        {
+            LogArchive.prepare(this.file);
+        }
+        catch (IOException ex)
+        {
+            System.err.println("lexa.core.logging.StreamLogFile.roll()");
+            ex.printStackTrace(System.err);
+            archived = false;
+        }
+        try
+        {
+            this.open(!archived);
+        }
+        catch (IOException ex)
+        {
+            System.err.println("lexa.core.logging.StreamLogFile.roll()");
+            ex.printStackTrace(System.err);
+            this.out = null;
+            this.log = System.err;
+            // the names defined in the file are not known on the standard error
+            this.renderer.reset();
+            archived = false;
+        }
+        if (!archived)
+        {
+            this.rolling.failed();
+            return;
+        }
+        LogArchive.prune(this.file, this.rolling.getKeep(), this.rolling.getMaxAge());
+        this.bytesWritten = 0;
+        this.renderer.reset();
+        this.rolling.rolled();
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * StringDictionary.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-014    Intern recurring strings written to a log
+ * 2026-10-18   WNW user-015    Short form references for text and data set logs
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns small integer ids to strings that recur in a log.
+ * <p>Ids are given out in order from {@code 0}, so a reader that adds the
+ * strings in the order they are defined holds the same ids as the writer.
+ * Once the dictionary holds its maximum number of strings no more are added.
+ * <p>In text and {@link lexa.core.data.DataSet DataSet} logs a string is
+ * written as {@code #id=string} the first time it is used and as {@code #id}
+ * after that; a reader keeps the latest definition of each id.
+ * <p>The dictionary belongs to a single log file and is only used by the
+ * thread writing, or reading, that file.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class StringDictionary
+{
+    /** The default maximum number of strings held */
+    static final int DEFAULT_CAPACITY = 65536;
+
+    /** The maximum number of strings held */
+    private final int capacity;
+    /** The ids of the strings */
+    private final Map<String, Integer> ids;
+    /** The strings in id order */
+    private final List<String> strings;
+
+    /**
+     * Create a dictionary.
+     * @param   capacity
+     *          the maximum number of strings held
+     */
+    StringDictionary(int capacity)
+    {
+        this.capacity = capacity;
+        this.ids = new HashMap<>();
+        this.strings = new ArrayList<>();
+    }
+
+    /**
+     * Get the id of a string.
+     * @param   string
+     *          the string to find
+     * @return  the id of the string, or {@code -1} if it is not held
+     */
+    int find(String string)
+    {
+        Integer id = this.ids.get(string);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Add a string that is not held.
+     * @param   string
+     *          the string to add
+     * @return  the id of the string, or {@code -1} if the dictionary is full
+     */
+    int add(String string)
+    {
+        if (this.strings.size() == this.capacity)
+        {
+            return -1;
+        }
+        int id = this.strings.size();
+        this.strings.add(string);
+        this.ids.put(string, id);
+        return id;
+    }
+
+    /**
+     * Append the short form of a string to a buffer.
+     * <br>
+     * A string used for the first time is added and appended as {@code #id=string},
+     * a string already held is appended as {@code #id}.  A string that cannot be
+     * added, or {@code null}, is appended as it is.
+     * @param   buffer
+     *          the buffer to append to
+     * @param   string
+     *          the string to append
+     * @return  the buffer
+     */
+    StringBuilder append(StringBuilder buffer, String string)
+    {
+        if (string == null)
+        {
+            return buffer.append(string);
+        }
+        int id = this.find(string);
+        if (id >= 0)
+        {
+            return buffer.append('#').append(id);
+        }
+        id = this.add(string);
+        if (id < 0)
+        {
+            return buffer.append(string);
+        }
+        return buffer.append('#').append(id).append('=').append(string);
+    }
+
+    /**
+     * Get the string for an id.
+     * @param   id
+     *          the id of the string
+     * @return  the string
+     * @throws  IndexOutOfBoundsException
+     *          when the id is not held
+     */
+    String get(int id)
+    {
+        return this.strings.get(id);
+    }
+
+    /**
+     * Remove all of the strings.
+     */
+    void clear()
+    {
+        this.ids.clear();
+        this.strings.clear();
+    }
+}
@@ -0,0 +1,505 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * TextRenderer.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-010    Render messages as text into a reused buffer
+ * 2026-10-18   WNW user-015    Optional short form names and types
+ * 2026-10-18   WNW user-017    Render data sets without recursion, with limits
+ * 2026-10-18   WNW user-018    Refer to repeated stack traces
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Iterator;
+import lexa.core.data.DataArray;
+import lexa.core.data.DataItem;
+import lexa.core.data.DataSet;
+import lexa.core.data.DataType;
+import lexa.core.data.DataValue;
+
+/**
+ * Renders a {@link Message} as text.
+ * <p>The message is written in the tab separated layout used for text logs:
+ * <pre>
+ * nnn  Day YYYY.MM.DD HH:MM:SS.SSS +0100	name	TYPE
+ * message
+ *   [data]
+ *   [throwable]
+ * </pre>
+ * <p>With short names, the name and type are written in the short form of a
+ * {@link StringDictionary}; call {@link #reset() reset} when a new file is
+ * started so that the file defines each of them again.
+ * <p>The data set in a message can be limited to a depth of nested data sets
+ * and arrays, beyond which each is written as {@code [...]}, and to a number
+ * of lines, after which {@code [truncated]} is written and the rest skipped.
+ * <p>With a {@link ThrowableCache}, an exception is headed by the fingerprint
+ * of its trace, {@code Exception: #fingerprint}, with {@code seen n times}
+ * added for a repeat; a repeat that is not written in full is followed by
+ * just the exception's own text.
+ * <p>The text is built in a buffer that is reused for each message, so each
+ * thread writing to a log needs its own renderer.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class TextRenderer
+{
+    /** The line separator used by {@link java.io.PrintStream#println()} */
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /** The buffer holding the rendered message */
+    private final StringBuilder text;
+    /** Format for the message time stamps */
+    private final TimeStampFormat timeStampFormat;
+    /** Writer for printing stack traces into the buffer */
+    private final PrintWriter traceWriter;
+    /** The short forms of the names and types, or {@code null} for full names */
+    private final StringDictionary names;
+    /** The maximum depth of nested data sets and arrays; 0 for no limit */
+    private final int maxDepth;
+    /** The maximum number of data lines; 0 for no limit */
+    private final int maxElements;
+    /** The path to the data value being rendered */
+    private final StringBuilder path;
+    /** The data sets and arrays being rendered */
+    private Frame[] stack;
+    /** The number of frames on the stack */
+    private int depth;
+    /** The number of data lines rendered */
+    private int elements;
+    /** The stack traces already written, or {@code null} to write each in full */
+    private final ThrowableCache traces;
+
+    /**
+     * Create a renderer.
+     */
+    TextRenderer()
+    {
+        this(false, 0, 0, null);
+    }
+
+    /**
+     * Create a renderer.
+     * @param   shortNames
+     *          {@code true} to write names and types in short form,
+     *          {@code false} to write them in full
+     * @param   maxDepth
+     *          the maximum depth of nested data sets and arrays; use {@code 0} for no limit.
+     * @param   maxElements
+     *          the maximum number of data lines; use {@code 0} for no limit.
+     * @param   traces
+     *          the stack traces already written; use {@code null} to write each in full.
+     */
+    TextRenderer(boolean shortNames, int maxDepth, int maxElements, ThrowableCache traces)
+    {
+        if (maxDepth < 0 || maxElements < 0)
+        {
+            throw new IllegalArgumentException("Invalid data limits");
+        }
+        this.maxDepth = maxDepth;
+        this.maxElements = maxElements;
+        this.traces = traces;
+        this.path = new StringBuilder();
+        this.stack = new Frame[8];
+        this.names = shortNames ?
+                new StringDictionary(StringDictionary.DEFAULT_CAPACITY) :
+                null;
+        this.text = new StringBuilder(1024);
+        this.timeStampFormat = new TimeStampFormat();
+        this.traceWriter = new PrintWriter(new BufferWriter(this.text));
+    }
+
+    /**
+     * Render a message.
+     * @param   message
+     *          the message to render
+     * @return  the rendered text; the buffer is reused by the next call.
+     */
+    CharSequence render(Message message)
+    {
+        try
+        {
+            return this.renderText(message);
+        }
+        catch (RuntimeException ex)
+        {
+            // the names defined by the failed message are not written
+            this.reset();
+            throw ex;
+        }
+    }
+
+    /**
+     * Start again with no short names defined and no stack traces written.
+     */
+    void reset()
+    {
+        if (this.names != null)
+        {
+            this.names.clear();
+        }
+        if (this.traces != null)
+        {
+            this.traces.clear();
+        }
+    }
+
+    /**
+     * Render a message.
+     * @param   message
+     *          the message to render
+     * @return  the rendered text
+     */
+    private CharSequence renderText(Message message)
+    {
+        StringBuilder out = this.text;
+        out.setLength(0);
+        message.appendId(out);
+        out.append('\t')
+                .append(this.timeStampFormat.format(message.getDateStamp()))
+                .append('\t');
+        if (this.names == null)
+        {
+            out.append(message.getName())
+                    .append('\t')
+                    .append(message.getType());
+        }
+        else
+        {
+            this.names.append(out, message.getName())
+                    .append('\t');
+            this.names.append(out, message.getType());
+        }
+        out.append('\n')
+                .append(message.getMessage());
+        Object[] args = message.getArgs();
+        if (args != null)
+        {
+            for (Object obj : args)
+            {
+                out.append(obj);
+            }
+        }
+        out.append('\n');
+        DataSet data = message.getDataSet();
+        if (data != null) {
+            this.renderDataSet(data);
+        }
+        Throwable throwable = message.getThrowable();
+        if (throwable != null) {
+            this.renderThrowable(throwable);
+        }
+        out.append('\n');
+        return out;
+    }
+
+    /**
+     * Render an exception.
+     * @param   throwable
+     *          the exception to render
+     */
+    private void renderThrowable(Throwable throwable)
+    {
+        if (this.traces == null)
+        {
+            this.text.append("Exception:\n");
+            throwable.printStackTrace(this.traceWriter);
+            this.traceWriter.flush();
+            return;
+        }
+        ThrowableCache.Trace trace = this.traces.seen(throwable);
+        this.text.append("Exception: #")
+                .append(trace.getId());
+        if (trace.getCount() > 1)
+        {
+            this.text.append(" seen ")
+                    .append(trace.getCount())
+                    .append(" times");
+        }
+        this.text.append('\n');
+        if (trace.isFull())
+        {
+            throwable.printStackTrace(this.traceWriter);
+            this.traceWriter.flush();
+            return;
+        }
+        this.text.append(throwable)
+                .append('\n');
+    }
+
+    /**
+     * Render the content of a {@link DataSet}.
+     * <br>
+     * Each value is written on a line after a prefix of tabs and its path;
+     * the path is built in a single buffer and the data sets and arrays
+     * being rendered are held on a stack rather than by recursion.
+     * @param   data
+     *          a {@link DataSet} to render.
+     */
+    private void renderDataSet(DataSet data) {
+        this.path.setLength(0);
+        this.depth = 0;
+        this.elements = 0;
+        if (data == null || data.isEmpty()) {
+            this.renderEmpty(1);
+            return;
+        }
+        this.push(1).items = data.iterator();
+        while (this.depth > 0)
+        {
+            Frame frame = this.stack[this.depth - 1];
+            this.path.setLength(frame.pathLength);
+            DataValue value;
+            if (frame.items != null)
+            {
+                if (!frame.items.hasNext())
+                {
+                    this.pop();
+                    continue;
+                }
+                DataItem item = frame.items.next();
+                this.path.append(item.getKey());
+                value = item.getValue();
+            }
+            else
+            {
+                if (frame.index == frame.array.size())
+                {
+                    this.pop();
+                    continue;
+                }
+                this.path.append('[').append(frame.index).append(']');
+                value = frame.array.get(frame.index++);
+            }
+            this.renderDataValue(frame.tabs, value);
+        }
+    }
+
+    /**
+     * Render a value from a {@link DataSet}.
+     * <br>
+     * A data set or array is pushed on to the stack to be rendered next.
+     * @param   tabs
+     *          the number of tabs before the path
+     * @param   value
+     *          the value to render.
+     */
+    private void renderDataValue(int tabs, DataValue value) {
+        DataType type = value.getType();
+        switch (type)
+        {
+            case ARRAY :
+            {
+                if (this.isDepthLimit(tabs))
+                {
+                    break;
+                }
+                Frame frame = this.push(tabs);
+                frame.array = value.getArray();
+                break;
+            }
+            case DATA_SET :
+            {
+                if (this.isDepthLimit(tabs))
+                {
+                    break;
+                }
+                this.path.append('.');
+                DataSet data = value.getDataSet();
+                if (data == null || data.isEmpty())
+                {
+                    this.renderEmpty(tabs + 1);
+                    break;
+                }
+                this.push(tabs + 1).items = data.iterator();
+                break;
+            }
+            default:
+            {
+                if (!this.startLine(tabs))
+                {
+                    break;
+                }
+                this.text.append(type.getTypeChar());
+                Object obj = value.getObject();
+                if (obj != null) {
+                    this.text.append('\t')
+                            .append(obj);
+                }
+                else
+                {
+                    this.text.append("\t[null]");
+                }
+                this.text.append('\n');
+                break;
+            }
+        }
+    }
+
+    /**
+     * Render an empty data set.
+     * @param   tabs
+     *          the number of tabs before the path
+     */
+    private void renderEmpty(int tabs)
+    {
+        if (this.startLine(tabs))
+        {
+            this.text.append("[empty]")
+                    .append(TextRenderer.LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * Check the depth limit before a data set or array is rendered.
+     * <br>
+     * At the limit the value is written as {@code [...]}.
+     * @param   tabs
+     *          the number of tabs before the path
+     * @return  {@code true} if the value is at the depth limit,
+     *          otherwise {@code false}
+     */
+    private boolean isDepthLimit(int tabs)
+    {
+        if (this.maxDepth == 0 || this.depth < this.maxDepth)
+        {
+            return false;
+        }
+        if (this.startLine(tabs))
+        {
+            this.text.append("[...]\n");
+        }
+        return true;
+    }
+
+    /**
+     * Start a line of data with its prefix.
+     * <br>
+     * Once the element limit is reached {@code [truncated]} is written and
+     * the rest of the data set is skipped.
+     * @param   tabs
+     *          the number of tabs before the path
+     * @return  {@code true} if the line was started,
+     *          {@code false} if the element limit has been reached
+     */
+    private boolean startLine(int tabs)
+    {
+        if (this.maxElements > 0 && this.elements++ == this.maxElements)
+        {
+            this.text.append("\t[truncated]\n");
+            while (this.depth > 0)
+            {
+                this.pop();
+            }
+            return false;
+        }
+        for (int t = 0; t < tabs; t++)
+        {
+            this.text.append('\t');
+        }
+        this.text.append(this.path);
+        return true;
+    }
+
+    /**
+     * Push a frame on to the stack for a data set or array.
+     * @param   tabs
+     *          the number of tabs before the path of each value
+     * @return  the frame, with its path set to the current path
+     */
+    private Frame push(int tabs)
+    {
+        if (this.depth == this.stack.length)
+        {
+            this.stack = Arrays.copyOf(this.stack, this.depth * 2);
+        }
+        Frame frame = this.stack[this.depth];
+        if (frame == null)
+        {
+            frame = new Frame();
+            this.stack[this.depth] = frame;
+        }
+        this.depth++;
+        frame.tabs = tabs;
+        frame.pathLength = this.path.length();
+        frame.items = null;
+        frame.array = null;
+        frame.index = 0;
+        return frame;
+    }
+
+    /**
+     * Pop the top frame from the stack.
+     */
+    private void pop()
+    {
+        Frame frame = this.stack[--this.depth];
+        frame.items = null;
+        frame.array = null;
+    }
+
+    /**
+     * A data set or array being rendered.
+     */
+    private static class Frame
+    {
+        /** The items left in a data set, or {@code null} for an array */
+        private Iterator<DataItem> items;
+        /** The array, or {@code null} for a data set */
+        private DataArray array;
+        /** The index of the next value in the array */
+        private int index;
+        /** The length of the path to the data set or array */
+        private int pathLength;
+        /** The number of tabs before the path of each value */
+        private int tabs;
+    }
+
+    /**
+     * A {@link Writer} appending to a buffer.
+     */
+    private static class BufferWriter
+            extends Writer
+    {
+        /** the buffer to append to */
+        private final StringBuilder buffer;
+
+        private BufferWriter(StringBuilder buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len)
+        {
+            this.buffer.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len)
+        {
+            this.buffer.append(str, off, off + len);
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * ThreadBuffer.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-024    Messages buffered by a single thread for merging
+ * 2026-10-18   WNW user-024    Take a head only when the writer checks for new messages
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * The messages logged by one thread, waiting to be merged by the writer thread.
+ * <p>Only the owning thread offers messages to the buffer and takes empty
+ * messages from its pool, and only the writer thread takes messages from the
+ * buffer and returns them to the pool, so neither queue is ever contended and
+ * no state is shared with other threads logging.
+ * <p>The writer holds the oldest message of each buffer as its head, and
+ * keeps the buffers with a head in a {@link MergeHeap} ordered by their heads
+ * to merge the messages in order.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class ThreadBuffer
+{
+    /** The thread logging into the buffer */
+    private final WeakReference<Thread> owner;
+    /** The messages waiting to be merged */
+    final RingBuffer<Message> messages;
+    /** The empty messages for the thread to reuse */
+    final RingBuffer<Message> pool;
+    /** The oldest message taken from the buffer; only used by the writer thread */
+    private Message head;
+
+    /**
+     * Create a buffer for the current thread.
+     * @param   size
+     *          the number of messages the buffer can hold
+     */
+    ThreadBuffer(int size)
+    {
+        this.owner = new WeakReference<>(Thread.currentThread());
+        this.messages = new RingBuffer<>(size);
+        this.pool = new RingBuffer<>(size);
+    }
+
+    /**
+     * Indicates if a queue of messages is at least half full.
+     * @param   messages
+     *          the queue of messages
+     * @return  {@code true} if the queue should be merged without waiting,
+     *          otherwise {@code false}
+     */
+    static boolean isFilling(RingBuffer<Message> messages)
+    {
+        return messages.size() >= messages.capacity() / 2;
+    }
+
+    /**
+     * Indicates if a message was logged before another.
+     * <br>
+     * Messages are ordered by the time they were logged and then by id.
+     * @param   message
+     *          the message to check
+     * @param   other
+     *          the message to compare it with
+     * @return  {@code true} if the message was logged first, otherwise {@code false}
+     */
+    static boolean isBefore(Message message, Message other)
+    {
+        long diff = message.getLogged() - other.getLogged();
+        return diff < 0 ||
+                diff == 0 && message.getIdValue() < other.getIdValue();
+    }
+
+    /**
+     * Take the oldest message in the buffer as its head, if it has none.
+     * @return  {@code true} if the buffer had no head and now has one,
+     *          otherwise {@code false}
+     */
+    boolean fill()
+    {
+        return this.head == null &&
+                (this.head = this.messages.poll()) != null;
+    }
+
+    /**
+     * Get the oldest message in the buffer without removing it.
+     * @return  the oldest message, or {@code null} if the buffer is empty
+     */
+    Message peek()
+    {
+        if (this.head == null)
+        {
+            this.head = this.messages.poll();
+        }
+        return this.head;
+    }
+
+    /**
+     * Remove the oldest message from the buffer.
+     * <br>
+     * This is only called after {@link #peek()} has returned the message.
+     * @return  the oldest message
+     */
+    Message take()
+    {
+        Message message = this.head;
+        this.head = null;
+        return message;
+    }
+
+    /**
+     * Indicates if the buffer is at least half full.
+     * @return  {@code true} if the buffer should be merged without waiting,
+     *          otherwise {@code false}
+     */
+    boolean isFilling()
+    {
+        return ThreadBuffer.isFilling(this.messages);
+    }
+
+    /**
+     * Get the number of messages in the buffer.
+     * @return  the number of messages waiting to be merged
+     */
+    int size()
+    {
+        return this.messages.size() + (this.head == null ? 0 : 1);
+    }
+
+    /**
+     * Indicates if the buffer is empty and its thread has ended.
+     * @return  {@code true} if the buffer can be discarded, otherwise {@code false}
+     */
+    boolean isAbandoned()
+    {
+        Thread thread = this.owner.get();
+        return (thread == null || !thread.isAlive()) &&
+                this.head == null &&
+                this.messages.isEmpty();
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * ThrowableCache.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-018    Recognise repeated exceptions by their stack trace
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lexa.core.data.ArrayDataArray;
+import lexa.core.data.DataArray;
+
+/**
+ * Recognises exceptions that have already been logged.
+ * <p>Each exception is fingerprinted by its class and stack frames, and those
+ * of its causes; the message is not part of the fingerprint, so the same
+ * failure for different requests is recognised.  The most recently seen
+ * fingerprints are held, with a count of how often each was seen.
+ * <p>A log writes the full stack trace the first time a fingerprint is seen and
+ * then once every set number of times; in between it writes just a reference
+ * to the fingerprint and the count.
+ * <p>The cache belongs to a single log file and is only used by the thread
+ * writing to that file.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class ThrowableCache
+{
+    /** The most causes included in a fingerprint */
+    private static final int MAX_CAUSES = 32;
+
+    /** The number of times a trace is seen between full traces */
+    private final int repeat;
+    /** The traces by fingerprint, least recently seen first */
+    private final Map<Long, Trace> traces;
+
+    /**
+     * Create a cache.
+     * @param   capacity
+     *          the number of fingerprints held
+     * @param   repeat
+     *          the number of times a trace is seen between full traces
+     */
+    ThrowableCache(int capacity, int repeat)
+    {
+        if (capacity < 1 || repeat < 1)
+        {
+            throw new IllegalArgumentException("Invalid trace cache");
+        }
+        this.repeat = repeat;
+        this.traces = new LinkedHashMap<Long, Trace>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Trace> eldest)
+            {
+                return this.size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Record that an exception has been seen.
+     * @param   throwable
+     *          the exception
+     * @return  the trace for the exception's fingerprint
+     */
+    Trace seen(Throwable throwable)
+    {
+        long fingerprint = ThrowableCache.fingerprint(throwable);
+        Trace trace = this.traces.get(fingerprint);
+        if (trace == null)
+        {
+            trace = new Trace(fingerprint);
+            this.traces.put(fingerprint, trace);
+        }
+        trace.count++;
+        trace.full = (trace.count - 1) % this.repeat == 0;
+        return trace;
+    }
+
+    /**
+     * Forget all of the traces, so that each is written in full again.
+     */
+    void clear()
+    {
+        this.traces.clear();
+    }
+
+    /**
+     * Get the fingerprint of an exception.
+     * @param   throwable
+     *          the exception
+     * @return  the fingerprint of the class and stack frames of the
+     *          exception and its causes
+     */
+    private static long fingerprint(Throwable throwable)
+    {
+        long hash = 0;
+        Throwable t = throwable;
+        for (int c = 0; t != null && c < ThrowableCache.MAX_CAUSES; c++)
+        {
+            hash = 31 * hash + t.getClass().getName().hashCode();
+            if (t instanceof DecodedThrowable)
+            {
+                // read back from a log, so only the text of the frames is known
+                for (String frame : DecodedThrowable.frames(t))
+                {
+                    hash = 31 * hash + frame.hashCode();
+                }
+            }
+            else
+            {
+                for (StackTraceElement frame : t.getStackTrace())
+                {
+                    hash = 31 * hash + frame.hashCode();
+                }
+            }
+            t = t.getCause();
+        }
+        // spread the bits so that fingerprints differ throughout
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * A stack trace that has been seen.
+     */
+    static class Trace
+    {
+        /** The text of the fingerprint */
+        private final String id;
+        /** The number of times the trace has been seen */
+        private long count;
+        /** Indicates if the trace should be written in full this time */
+        private boolean full;
+        /** The stack frames as text, once they have been needed */
+        private DataArray stack;
+
+        private Trace(long fingerprint)
+        {
+            this.id = Long.toHexString(fingerprint);
+        }
+
+        /**
+         * Get the fingerprint as text.
+         * @return the fingerprint in hex
+         */
+        String getId()
+        {
+            return this.id;
+        }
+
+        /**
+         * Get the number of times the trace has been seen.
+         * @return the number of times the trace has been seen
+         */
+        long getCount()
+        {
+            return this.count;
+        }
+
+        /**
+         * Indicates if the trace should be written in full this time.
+         * @return  {@code true} to write the full trace,
+         *          {@code false} to write a reference
+         */
+        boolean isFull()
+        {
+            return this.full;
+        }
+
+        /**
+         * Get the stack frames of the exception as text.
+         * <br>
+         * The frames are the same for each exception with the fingerprint,
+         * so they are only rendered the first time.
+         * @param   throwable
+         *          an exception with the fingerprint
+         * @return  the stack frames as text
+         */
+        DataArray getStack(Throwable throwable)
+        {
+            if (this.stack == null)
+            {
+                this.stack = new ArrayDataArray();
+                for (String frame : DecodedThrowable.frames(throwable))
+                {
+                    this.stack.add(frame);
+                }
+            }
+            return this.stack;
+        }
+    }
+}
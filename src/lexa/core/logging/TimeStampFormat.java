@@ -0,0 +1,83 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * TimeStampFormat.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-009    Cached time stamp formatting for log messages
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.util.Date;
+import lexa.core.data.formatting.DateTimeFormat;
+
+/**
+ * Formats the time stamp of a message as {@code E yyyy.MM.dd HH:mm:ss.SSS Z}.
+ * <p>The text is only built once for each second; within the same second just
+ * the milliseconds are written into the cached characters, so formatting a
+ * time stamp does not allocate.
+ * <p>The characters returned are reused by the next call, so each thread
+ * writing to a log needs its own instance.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class TimeStampFormat
+{
+    /** Format for the date and time up to the milliseconds */
+    private static final String PREFIX_FORMAT = "E yyyy.MM.dd HH:mm:ss.";
+    /** Format for the time zone after the milliseconds */
+    private static final String SUFFIX_FORMAT = " Z";
+
+    /** Formats the text before the milliseconds */
+    private final DateTimeFormat prefixFormat;
+    /** Formats the text after the milliseconds */
+    private final DateTimeFormat suffixFormat;
+    /** The second currently held in the text */
+    private long second;
+    /** The formatted text */
+    private char[] text;
+    /** The position of the milliseconds in the text */
+    private int millisIndex;
+
+    /**
+     * Create a time stamp format.
+     */
+    TimeStampFormat()
+    {
+        this.prefixFormat = new DateTimeFormat(TimeStampFormat.PREFIX_FORMAT);
+        this.suffixFormat = new DateTimeFormat(TimeStampFormat.SUFFIX_FORMAT);
+        this.second = Long.MIN_VALUE;
+    }
+
+    /**
+     * Format a time stamp.
+     * @param   dateStamp
+     *          the time stamp in milliseconds since the epoch
+     * @return  the formatted time stamp; the characters are reused by the next call.
+     */
+    char[] format(long dateStamp)
+    {
+        long second = Math.floorDiv(dateStamp, 1000L);
+        if (second != this.second)
+        {
+            Date date = new Date(second * 1000L);
+            String prefix = this.prefixFormat.toString(date);
+            this.text = (prefix + "000" + this.suffixFormat.toString(date)).toCharArray();
+            this.millisIndex = prefix.length();
+            this.second = second;
+        }
+        int millis = (int)Math.floorMod(dateStamp, 1000L);
+        this.text[this.millisIndex] = (char)('0' + millis / 100);
+        this.text[this.millisIndex + 1] = (char)('0' + millis / 10 % 10);
+        this.text[this.millisIndex + 2] = (char)('0' + millis % 10);
+        return this.text;
+    }
+}
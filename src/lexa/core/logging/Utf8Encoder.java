@@ -0,0 +1,158 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * Utf8Encoder.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-010    Encode rendered text straight into a byte buffer
+ * 2026-10-18   WNW user-014    Measure the encoded length of text
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes text as UTF-8 into a {@link ByteBuffer}.
+ * <p>ASCII characters, which make up almost all of a log, are copied a byte at
+ * a time with no further checks.  A character that is not part of a valid
+ * surrogate pair is written as {@code ?}, as the standard encoder does.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class Utf8Encoder
+{
+    private Utf8Encoder()
+    {
+    }
+
+    /**
+     * Encode text into a buffer.
+     * <br>
+     * Encoding stops when the buffer does not have room for the next character,
+     * so the caller can drain the buffer and continue from the returned index.
+     * @param   text
+     *          the text to encode
+     * @param   start
+     *          the index of the first character to encode
+     * @param   buffer
+     *          the buffer to encode into
+     * @return  the index of the first character not encoded;
+     *          this is the length of the text when all of it has been encoded.
+     */
+    static int encode(CharSequence text, int start, ByteBuffer buffer)
+    {
+        int length = text.length();
+        int index = start;
+        while (index < length)
+        {
+            char c = text.charAt(index);
+            if (c < 0x80)
+            {
+                if (!buffer.hasRemaining())
+                {
+                    return index;
+                }
+                buffer.put((byte)c);
+                index++;
+            }
+            else if (c < 0x800)
+            {
+                if (buffer.remaining() < 2)
+                {
+                    return index;
+                }
+                buffer.put((byte)(0xc0 | (c >> 6)))
+                        .put((byte)(0x80 | (c & 0x3f)));
+                index++;
+            }
+            else if (Character.isSurrogate(c))
+            {
+                if (Character.isHighSurrogate(c) && index + 1 < length &&
+                        Character.isLowSurrogate(text.charAt(index + 1)))
+                {
+                    if (buffer.remaining() < 4)
+                    {
+                        return index;
+                    }
+                    int cp = Character.toCodePoint(c, text.charAt(index + 1));
+                    buffer.put((byte)(0xf0 | (cp >> 18)))
+                            .put((byte)(0x80 | ((cp >> 12) & 0x3f)))
+                            .put((byte)(0x80 | ((cp >> 6) & 0x3f)))
+                            .put((byte)(0x80 | (cp & 0x3f)));
+                    index += 2;
+                }
+                else
+                {
+                    if (!buffer.hasRemaining())
+                    {
+                        return index;
+                    }
+                    buffer.put((byte)'?');
+                    index++;
+                }
+            }
+            else
+            {
+                if (buffer.remaining() < 3)
+                {
+                    return index;
+                }
+                buffer.put((byte)(0xe0 | (c >> 12)))
+                        .put((byte)(0x80 | ((c >> 6) & 0x3f)))
+                        .put((byte)(0x80 | (c & 0x3f)));
+                index++;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Get the number of bytes needed to encode text.
+     * @param   text
+     *          the text to measure
+     * @return  the number of bytes written by {@link #encode(CharSequence, int, ByteBuffer) encode}
+     */
+    static int length(CharSequence text)
+    {
+        int length = text.length();
+        int bytes = 0;
+        for (int index = 0; index < length; index++)
+        {
+            char c = text.charAt(index);
+            if (c < 0x80)
+            {
+                bytes++;
+            }
+            else if (c < 0x800)
+            {
+                bytes += 2;
+            }
+            else if (Character.isSurrogate(c))
+            {
+                if (Character.isHighSurrogate(c) && index + 1 < length &&
+                        Character.isLowSurrogate(text.charAt(index + 1)))
+                {
+                    bytes += 4;
+                    index++;
+                }
+                else
+                {
+                    bytes++;
+                }
+            }
+            else
+            {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * LogWriterTest.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-023    The writer thread logging does not wait for itself
+ * 2026-10-18   WNW user-002    A quiet synchronous log is flushed on time
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the behaviour of the {@link LogWriter}.
+ *
+ * @author william
+ * @since 2026-10
+ */
+public class LogWriterTest
+{
+    /** Messages logged by each test */
+    private static final int MESSAGES = 1000;
+
+    /** Milliseconds after the first unflushed message before a flush */
+    private static final long INTERVAL = 200;
+    /** Milliseconds allowed past the interval for the flush to be scheduled */
+    private static final long SLACK = 500;
+
+    /** Set while a test has a log writer that is not closed */
+    private boolean logging;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown()
+    {
+        if (this.logging)
+        {
+            Logger.close();
+        }
+    }
+
+    /**
+     * A log file that logs an error for each message it writes, as one
+     * reporting a failure would, must not leave the writer thread waiting for
+     * its own error to be committed or for space in its own queue.
+     */
+    @Test(timeout = 10000)
+    public void testWriterLoggingErrorsDoesNotWaitForItself()
+    {
+        ReportingLogFile logFile = new ReportingLogFile();
+        Logger.setLogWriter(new LogWriter(logFile, new FlushPolicy(),
+                4, OverflowPolicy.BLOCK, Durability.FLUSH, true));
+        this.logging = true;
+        Logger logger = new Logger("LogWriterTest", "test");
+        for (int m = 0; m < LogWriterTest.MESSAGES; m++)
+        {
+            logger.info(ReportingLogFile.FAIL);
+        }
+        Logger.close();
+        this.logging = false;
+        assertEquals(LogWriterTest.MESSAGES, logFile.failed.get());
+        assertTrue("No errors written", logFile.reported.get() > 0);
+    }
+
+    /**
+     * A single message written by a synchronous writer with a flush interval
+     * must reach the file within the interval, without a later message to
+     * notice the interval has passed.
+     * @throws  IOException
+     *          when the log file cannot be read
+     * @throws  InterruptedException
+     *          when interrupted waiting for the flush
+     */
+    @Test(timeout = 10000)
+    public void testQuietSyncLogIsFlushedOnTime()
+            throws IOException, InterruptedException
+    {
+        File file = this.folder.newFile("quiet.log");
+        Logger.setLogWriter(new LogWriter(new StreamLogFile(file),
+                new FlushPolicy(1000, LogWriterTest.INTERVAL, false)));
+        this.logging = true;
+        new Logger("LogWriterTest", "test").info("Only message");
+        long logged = System.currentTimeMillis();
+        String text = "";
+        while (!text.contains("Only message") &&
+                System.currentTimeMillis() - logged < LogWriterTest.INTERVAL + LogWriterTest.SLACK)
+        {
+            Thread.sleep(10);
+            text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        }
+        assertTrue("Message not flushed within the interval", text.contains("Only message"));
+    }
+
+    /**
+     * A log file that reports a failure through a {@link Logger} each time it
+     * is asked to write a message marked to fail.
+     */
+    private static class ReportingLogFile
+            implements LogFile
+    {
+        /** Text of a message that fails to write */
+        private static final String FAIL = "Fail to write this message";
+        /** Reports the failures */
+        private Logger logger;
+        /** Messages that failed to write */
+        private final AtomicInteger failed = new AtomicInteger();
+        /** Errors reporting a failure that were written */
+        private final AtomicInteger reported = new AtomicInteger();
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void write(Message message)
+        {
+            if (ReportingLogFile.FAIL.equals(message.getMessage()))
+            {
+                if (this.logger == null)
+                {
+                    this.logger = new Logger("ReportingLogFile", "test");
+                }
+                this.failed.incrementAndGet();
+                this.logger.error("Write failed", null);
+            }
+            else if ("ERROR".equals(message.getType()))
+            {
+                this.reported.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * LoggerAllocationTest.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-007    Steady state logging allocates nothing
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that logging on a warmed, pooled {@link LogWriter} does not allocate.
+ * <p>The bytes allocated by the test thread are read from the
+ * {@link com.sun.management.ThreadMXBean}; the test is skipped on a JVM that
+ * does not count them.
+ *
+ * @author william
+ * @since 2026-10
+ */
+public class LoggerAllocationTest
+{
+    /** Messages logged to warm up the pool, the renderer and the JIT */
+    private static final int WARM_UP = 50_000;
+    /** Messages logged while counting the bytes allocated */
+    private static final int MESSAGES = 100_000;
+    /** Bytes allowed for the whole run, for reading the counter and any stray allocation */
+    private static final long ALLOWANCE = 16 * 1024;
+
+    private com.sun.management.ThreadMXBean threads;
+
+    @Before
+    public void setUp()
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("Thread allocation not counted by this JVM",
+                bean instanceof com.sun.management.ThreadMXBean);
+        this.threads = (com.sun.management.ThreadMXBean)bean;
+        Assume.assumeTrue("Thread allocation not counted by this JVM",
+                this.threads.isThreadAllocatedMemorySupported());
+        this.threads.setThreadAllocatedMemoryEnabled(true);
+        Logger.setLogWriter(new LogWriter(
+                new StreamLogFile(new PrintStream(new NullOutputStream())),
+                new FlushPolicy()));
+    }
+
+    @After
+    public void tearDown()
+    {
+        Logger.close();
+    }
+
+    @Test
+    public void testInfoDoesNotAllocate()
+    {
+        Logger logger = new Logger("LoggerAllocationTest", "test");
+        for (int m = 0; m < LoggerAllocationTest.WARM_UP; m++)
+        {
+            logger.info("Steady state message");
+        }
+        long thread = Thread.currentThread().getId();
+        long before = this.threads.getThreadAllocatedBytes(thread);
+        for (int m = 0; m < LoggerAllocationTest.MESSAGES; m++)
+        {
+            logger.info("Steady state message");
+        }
+        long allocated = this.threads.getThreadAllocatedBytes(thread) - before;
+        assertTrue("Allocated " + allocated + " bytes for " +
+                LoggerAllocationTest.MESSAGES + " messages",
+                allocated < LoggerAllocationTest.ALLOWANCE);
+    }
+}
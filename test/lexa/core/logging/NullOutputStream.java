@@ -0,0 +1,45 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * NullOutputStream.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-021    Discarding stream for the benchmarks
+ * 2026-10-18   WNW user-007    Shared by the tests and the benchmarks
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.OutputStream;
+
+/**
+ * An output stream that discards everything written, as {@code /dev/null}
+ * does, on any platform.
+ * <p>A log written to this stream measures the cost of rendering and
+ * encoding the messages without any I/O.  It is on the test classpath,
+ * which the benchmarks are also compiled against.
+ *
+ * @author william
+ * @since 2026-10
+ */
+class NullOutputStream
+        extends OutputStream
+{
+    @Override
+    public void write(int b)
+    {
+        // discarded
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len)
+    {
+        // discarded
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * ================================================================================
+ * Lexa - Property of William Norman-Walker
+ * --------------------------------------------------------------------------------
+ * VirtualThreadPinningTest.java
+ *--------------------------------------------------------------------------------
+ * Author:  William Norman-Walker
+ * Created: October 2026
+ *--------------------------------------------------------------------------------
+ * Change Log
+ * Date:        By: Ref:        Description:
+ * ----------   --- ----------  --------------------------------------------------
+ * 2026-10-18   WNW user-025    Logging from virtual threads does not pin carriers
+ *================================================================================
+ */
+package lexa.core.logging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that virtual threads logging are never pinned to their carrier.
+ * <p>The test is run with {@code -Djdk.tracePinnedThreads}, set by
+ * {@code test-sys-prop.jdk.tracePinnedThreads} in the project properties, so
+ * the JVM prints the stack of any virtual thread that parks while holding a
+ * monitor to {@link System#out}.  The log file parks on every write, as a
+ * blocking stream would, and the output is checked for pinned stacks.
+ * <p>The test is skipped on a JVM without virtual threads, and on one that
+ * does not report a control thread parking inside a monitor.
+ *
+ * @author william
+ * @since 2026-10
+ */
+public class VirtualThreadPinningTest
+{
+    /** Virtual threads started for each test */
+    private static final int THREADS = 1000;
+    /** Messages logged by each thread */
+    private static final int MESSAGES = 10;
+    /** Time the log file blocks for each message */
+    private static final long WRITE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+    /** Marks the frames holding a monitor in a pinned stack */
+    private static final String PINNED = "<== monitors";
+
+    /** The standard output, restored after each test */
+    private PrintStream out;
+    /** The standard output captured while each test runs */
+    private ByteArrayOutputStream captured;
+    /** Set once a test has set up a log writer */
+    private boolean logging;
+
+    @Before
+    public void setUp()
+            throws Exception
+    {
+        Assume.assumeTrue("Run with -Djdk.tracePinnedThreads",
+                System.getProperty("jdk.tracePinnedThreads") != null);
+        Assume.assumeTrue("Virtual threads need JDK 21",
+                VirtualThreadPinningTest.hasVirtualThreads());
+        this.out = System.out;
+        this.captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(this.captured, true));
+        // a control thread that parks in a monitor, which must be reported
+        VirtualThreadPinningTest.run(1, () ->
+        {
+            synchronized (this)
+            {
+                LockSupport.parkNanos(VirtualThreadPinningTest.WRITE_PARK_NANOS);
+            }
+        });
+        String control = this.captured.toString();
+        this.captured.reset();
+        Assume.assumeTrue("Pinned threads not reported by this JVM",
+                control.contains(VirtualThreadPinningTest.PINNED));
+    }
+
+    @After
+    public void tearDown()
+    {
+        if (this.out != null)
+        {
+            System.setOut(this.out);
+        }
+        if (this.logging)
+        {
+            Logger.close();
+        }
+    }
+
+    @Test
+    public void testSynchronousWriterDoesNotPin()
+            throws Exception
+    {
+        Logger.setLogWriter(new LogWriter(new BlockingLogFile(), new FlushPolicy()));
+        this.logging = true;
+        this.logFromVirtualThreads();
+    }
+
+    @Test
+    public void testWaitingForErrorsDoesNotPin()
+            throws Exception
+    {
+        Logger.setLogWriter(new LogWriter(new BlockingLogFile(), new FlushPolicy(),
+                64, OverflowPolicy.BLOCK, Durability.FLUSH, true));
+        this.logging = true;
+        this.logFromVirtualThreads();
+    }
+
+    /**
+     * Log from many virtual threads and check none of them was pinned.
+     */
+    private void logFromVirtualThreads()
+            throws Exception
+    {
+        VirtualThreadPinningTest.run(VirtualThreadPinningTest.THREADS, () ->
+        {
+            Logger logger = new Logger("VirtualThreadPinningTest",
+                    Thread.currentThread().getName());
+            for (int m = 0; m < VirtualThreadPinningTest.MESSAGES; m++)
+            {
+                logger.info("Logged from a virtual thread");
+                logger.error("Error from a virtual thread", null);
+            }
+        });
+        String trace = this.captured.toString();
+        assertFalse("Virtual threads pinned while logging:\n" + trace,
+                trace.contains(VirtualThreadPinningTest.PINNED));
+    }
+
+    /**
+     * Indicates if the JVM supports virtual threads.
+     * @return  {@code true} if virtual threads can be started, otherwise {@code false}
+     */
+    private static boolean hasVirtualThreads()
+    {
+        try
+        {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        }
+        catch (NoSuchMethodException ex)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Run a task on a number of virtual threads and wait for them all to end.
+     * <br>
+     * The executor is found by reflection so the test compiles for Java 8.
+     * @param   threads
+     *          the number of virtual threads
+     * @param   task
+     *          the task for each thread
+     */
+    private static void run(int threads, Runnable task)
+            throws Exception
+    {
+        ExecutorService executor = (ExecutorService)Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor")
+                .invoke(null);
+        for (int t = 0; t < threads; t++)
+        {
+            executor.execute(task);
+        }
+        executor.shutdown();
+        assertTrue("Virtual threads did not finish",
+                executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    /**
+     * A log file that blocks for each message, as a slow stream would.
+     */
+    private static class BlockingLogFile
+            implements LogFile
+    {
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        public void flush()
+        {
+            LockSupport.parkNanos(VirtualThreadPinningTest.WRITE_PARK_NANOS);
+        }
+
+        @Override
+        public void write(Message message)
+        {
+            LockSupport.parkNanos(VirtualThreadPinningTest.WRITE_PARK_NANOS);
+        }
+    }
+}